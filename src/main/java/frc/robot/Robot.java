@@ -9,8 +9,21 @@ import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.can.CANBusMonitor;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
 import frc.robot.constants.PhysicalConstants.LimelightConstants;
 import frc.robot.constants.PhysicalConstants.RobotConstants;
+import frc.robot.constants.PhysicalConstants.SterilizerConstants;
+import frc.robot.shooter.ShotSolver;
+import frc.robot.shooter.SterilizerSubsystem;
+import frc.robot.simulation.NoteSimulation;
+import frc.robot.utilities.BootProfiler;
+import frc.robot.utilities.CommandTracer;
+import frc.robot.utilities.Metrics;
 import frc.robot.utilities.Telemetry;
 
 /**
@@ -31,14 +44,26 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+        BootProfiler profiler = BootProfiler.getInstance();
+
         // Port forward all required LL ports. Necessary for robot connections over ethernet.
-        for (int port = 5800; port <= 5807; port++) {
-            PortForwarder.add(port, LimelightConstants.INTAKE_LLIGHT + ".local", port);
-            PortForwarder.add(port + 10, LimelightConstants.SHOOTER_LLIGHT + ".local", port);
-        }
+        profiler.phase("Port forwarding", () -> {
+            for (int port = 5800; port <= 5807; port++) {
+                PortForwarder.add(port, LimelightConstants.INTAKE_LLIGHT + ".local", port);
+                PortForwarder.add(port + 10, LimelightConstants.SHOOTER_LLIGHT + ".local", port);
+            }
+        });
+
+        // Record command start and end times.
+        profiler.phase("CommandTracer", CommandTracer::getInstance);
 
         // Initialize RobotContainer and all subsystems
         RobotContainer.getInstance();
+        // The devices keep configuring on worker threads, their failures are reported by the StartupOrchestrator.
+        profiler.markDrivable();
+
+        // Index notes faster than the main loop so the intake and sterilizer stop on the laser edges.
+        addPeriodic(SterilizerSubsystem.getInstance()::updateIndexer, SterilizerConstants.INDEXER_PERIOD);
 
         // Telemetry.
         this.timer = new Timer();
@@ -57,16 +82,25 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
+        // Solved before the commands run so that they all share this loop's shot.
+        ShotSolver.getInstance().update();
         CommandScheduler.getInstance().run();
 
         if (Telemetry.initialized && this.timer.hasElapsed(RobotConstants.TELEMETRY_LOOP_TIME)) {
             this.timer.reset();
             Telemetry.getInstance().publish();
         }
+        StartupOrchestrator.getInstance().update();
+        BootProfiler.getInstance().update();
+        CANBusMonitor.getInstance().update();
+        DeviceHealthMonitor.getInstance().update();
+        Metrics.getInstance().update();
     }
 
     @Override
-    public void disabledInit() {}
+    public void disabledInit() {
+        StatusFrameAllocator.getInstance().setMode(RobotMode.DISABLED);
+    }
 
     @Override
     public void disabledPeriodic() {}
@@ -77,6 +111,9 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void autonomousInit() {
+        StatusFrameAllocator.getInstance().setMode(RobotMode.AUTONOMOUS);
+        warnIfNotReady();
+
         this.auton = RobotContainer.getInstance().getAutonomousCommand();
         if (this.auton != null) {
             try {
@@ -96,6 +133,9 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        StatusFrameAllocator.getInstance().setMode(RobotMode.TELEOP);
+        warnIfNotReady();
+
         if (this.auton != null) {
             this.auton.cancel();
         }
@@ -106,6 +146,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testInit() {
+        StatusFrameAllocator.getInstance().setMode(RobotMode.TEST);
+
         // Cancels all running commands at the start of test mode.
         CommandScheduler.getInstance().cancelAll();
     }
@@ -116,6 +158,24 @@ public class Robot extends TimedRobot {
     @Override
     public void simulationInit() {}
 
+    /**
+     * Reports that the robot was enabled before every device confirmed its configuration.
+     */
+    private void warnIfNotReady() {
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        if (orchestrator.isReady()) return;
+        Telemetry.logMessage(orchestrator.isDone()
+            ? "Enabled with devices that failed to configure, their mechanisms may misbehave"
+            : "Enabled while devices are still configuring, their mechanisms may misbehave", LoggingTags.ERROR);
+    }
+
+    /**
+     * The mechanisms are simulated by their subsystems in {@code simulationPeriodic()},
+     * which the scheduler runs before the commands.
+     */
     @Override
-    public void simulationPeriodic() {}
+    public void simulationPeriodic() {
+        // Runs after the commands so that the note moves with this loop's speeds.
+        NoteSimulation.getInstance().update();
+    }
 }
@@ -4,23 +4,31 @@
 
 package frc.robot;
 
+import java.util.Map;
+
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInLayouts;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.auto.CenterSpeakerCommand;
 import frc.robot.auto.PathingCommands;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
 import frc.robot.constants.Constants.ControllerConstants;
 import frc.robot.constants.Constants.IntakeStates;
 import frc.robot.constants.Constants.ShuffleboardTabNames;
 import frc.robot.constants.Constants.ShooterStates;
+import frc.robot.constants.PhysicalConstants.ShooterConstants;
 import frc.robot.constants.PhysicalConstants.SterilizerConstants;
 import frc.robot.constants.Positions.PathfindingPosition;
 import frc.robot.elevator.ElevatorSubsystem;
@@ -33,9 +41,13 @@ import frc.robot.shooter.PivotShooterMMCommand;
 import frc.robot.shooter.RevUpCommand;
 import frc.robot.shooter.ShootCommand;
 import frc.robot.shooter.ShooterSubsystem;
+import frc.robot.shooter.ShotMap;
+import frc.robot.shooter.ShotSolver;
 import frc.robot.shooter.SterilizerSubsystem;
 import frc.robot.swerve.SwerveDriveCommand;
 import frc.robot.swerve.SwerveSubsystem;
+import frc.robot.utilities.BootProfiler;
+import frc.robot.utilities.CommandTracer;
 import frc.robot.utilities.SequencedCommands;
 import frc.robot.utilities.Telemetry;
 
@@ -49,7 +61,8 @@ public class RobotContainer {
         return instance;
     }
 
-    private final SendableChooser<Command> autoChooser;
+    /** Built after the robot is drivable, null until then. */
+    private SendableChooser<Command> autoChooser;
 
     // Instance of the controllers used to drive the robot
     private CommandXboxController driveController;
@@ -60,33 +73,44 @@ public class RobotContainer {
         this.driveController = new CommandXboxController(ControllerConstants.DRIVE_CONTROLLER_ID);
         this.operatorController = new CommandXboxController(ControllerConstants.OPERATOR_CONTROLLER_ID);
         
+        BootProfiler profiler = BootProfiler.getInstance();
+
         initializeSubsystems();
         // Register named commands for pathplanner (do this after subsystem initialization)
-        registerNamedCommands();
+        profiler.phase("Named commands", this::registerNamedCommands);
 
-        configureDriverBindings();
-        configureOperatorBindings();
+        profiler.phase("Bindings", () -> {
+            configureDriverBindings();
+            configureOperatorBindings();
+        });
 
-        autoChooser = AutoBuilder.buildAutoChooser(); // Default auto will be Commands.none()
-        Shuffleboard.getTab(ShuffleboardTabNames.DEFAULT)
-            .add("Auto Chooser", autoChooser)
-            .withWidget(BuiltInWidgets.kComboBoxChooser)
-            .withPosition(11, 0)
-            .withSize(4, 1);
+        // Reading the shot map is only needed to shoot from a calculated position.
+        profiler.defer("Shot map", ShotMap::getInstance);
+        // Parsing every auto and path is not needed to drive.
+        profiler.defer("Auto chooser", this::initializeAutoChooser);
+        profiler.defer("Camera streams", () -> Telemetry.getInstance().initializeCameras());
+        profiler.defer("Characterization", this::initializeCharacterization);
     }
 
     /** Creates instances of each subsystem so periodic runs */
     private void initializeSubsystems() {
-        Telemetry.getInstance();
-        Timer.delay(2.5);
+        BootProfiler profiler = BootProfiler.getInstance();
+
+        profiler.phase("Telemetry", Telemetry::getInstance);
         
-        LEDSubsystem.getInstance();
-        LimelightSubsystem.getInstance();
-        SwerveSubsystem.getInstance();
-        IntakeSubsystem.getInstance();
-        SterilizerSubsystem.getInstance();
-        ShooterSubsystem.getInstance();
-        ElevatorSubsystem.getInstance();
+        profiler.phase("LEDSubsystem", LEDSubsystem::getInstance);
+        profiler.phase("LimelightSubsystem", LimelightSubsystem::getInstance);
+        profiler.phase("SwerveSubsystem", SwerveSubsystem::getInstance);
+        profiler.phase("IntakeSubsystem", IntakeSubsystem::getInstance);
+        profiler.phase("SterilizerSubsystem", SterilizerSubsystem::getInstance);
+        profiler.phase("ShooterSubsystem", ShooterSubsystem::getInstance);
+        // Registers the rotation override for shooting on the move in autos.
+        profiler.phase("ShotSolver", ShotSolver::getInstance);
+        profiler.phase("ElevatorSubsystem", ElevatorSubsystem::getInstance);
+
+        // Every device has declared its status frames by now, apply them once the devices are configured.
+        StartupOrchestrator.getInstance().configureAfterAll("Status frames",
+            () -> StatusFrameAllocator.getInstance().allocate());
     }
 
     /** Register all NamedCommands for PathPlanner use */
@@ -95,42 +119,51 @@ public class RobotContainer {
         // NOTE use Pathplanner paths to return to speaker
         
         // Intake
-        NamedCommands.registerCommand("Collect Note CENTER",
+        registerNamedCommand("Collect Note CENTER",
             SequencedCommands.getCollectNoteCommand().withTimeout(7.5));
-        NamedCommands.registerCommand("Collect Note NOCENTER",
+        registerNamedCommand("Collect Note NOCENTER",
             SequencedCommands.getCollectNoteCommandNoCenter().withTimeout(5));
-        NamedCommands.registerCommand("Intake Pivot and Spin",
+        registerNamedCommand("Intake Pivot and Spin",
             SequencedCommands.getIntakeCommand());
 
         // Shoot
-        NamedCommands.registerCommand("Shoot SPEAKER",
+        registerNamedCommand("Shoot SPEAKER",
             Commands.deadline(
                 new ShootCommand(ShooterStates.SPEAKER),
                 new PivotShooterMMCommand(ShooterStates.SPEAKER)
             ));
-        NamedCommands.registerCommand("Shoot AMP",
+        registerNamedCommand("Shoot AMP",
             Commands.deadline(
                 new ShootCommand(ShooterStates.AMP),
                 new PivotShooterMMCommand(ShooterStates.AMP)
             ));;
-        NamedCommands.registerCommand("Shoot CALCULATE",
+        registerNamedCommand("Shoot CALCULATE",
             SequencedCommands.getAutoSpeakerShootCommand());
-        NamedCommands.registerCommand("Center SPEAKER", 
+        registerNamedCommand("Center SPEAKER", 
             new CenterSpeakerCommand().withTimeout(1.5));
         
         // Rev Up
-        NamedCommands.registerCommand("Rev Up SPEAKER",
+        registerNamedCommand("Rev Up SPEAKER",
             new RevUpCommand(ShooterStates.SPEAKER));
-        NamedCommands.registerCommand("Rev Up AMP",
+        registerNamedCommand("Rev Up AMP",
             new RevUpCommand(ShooterStates.AMP));
-        NamedCommands.registerCommand("Rev Up CALCULATE",
+        registerNamedCommand("Rev Up CALCULATE",
             new RevUpCommand(ShooterStates.SPEAKER_CALCULATE));
 
         // Other
-        NamedCommands.registerCommand("IntakeEject NOEND",
+        registerNamedCommand("IntakeEject NOEND",
             SequencedCommands.getIntakeEjectCommand());
     }
 
+    /**
+     * Registers a NamedCommand for PathPlanner that is traced by the {@link CommandTracer}.
+     * @param name of the command in PathPlanner.
+     * @param command to register.
+     */
+    private static void registerNamedCommand(String name, Command command) {
+        NamedCommands.registerCommand(name, CommandTracer.traced(command, name));
+    }
+
     /** Configures the button bindings of the driver controller */
     private void configureDriverBindings() {
         // Sets the default command to driving swerve
@@ -176,13 +209,18 @@ public class RobotContainer {
 
     /** Configures the button bindings of the driver controller */
     private void configureOperatorBindings() {
+        // Both sides move together, clicking the right stick toggles moving them independently to fix a skew by hand.
         ShooterSubsystem.getInstance().getPivotRequirement().setDefaultCommand(new ManuallyPivotShooterCommand(
+            () -> -operatorController.getLeftY()
+        ));
+        operatorController.rightStick().toggleOnTrue(new ManuallyPivotShooterCommand(
             () -> -operatorController.getLeftY(),
             () -> -operatorController.getRightY(),
             false
         ));
-        operatorController.rightStick().onTrue(
-            Commands.run(() -> ShooterSubsystem.getInstance().setRotorPositions())
+        // Records the current shot in the shot map after tuning it by hand.
+        operatorController.leftStick().onTrue(
+            Commands.runOnce(() -> ShotMap.getInstance().calibrateCurrentShot())
         );
 
         // Cancel all scheduled commands and turn off LEDs
@@ -262,6 +300,57 @@ public class RobotContainer {
      * @return The command to run in autonomous
      */
     public Command getAutonomousCommand() {
-        return autoChooser.getSelected();
+        // Autonomous can start before the deferred phases had their turn.
+        if (this.autoChooser == null) {
+            BootProfiler.getInstance().runDeferred();
+        }
+        return this.autoChooser.getSelected();
+    }
+
+    /**
+     * Adds the SysId characterization commands and the pivot Motion Magic tuning to Shuffleboard.
+     * The SysId commands should be run in test mode.
+     */
+    private void initializeCharacterization() {
+        ShuffleboardLayout sysIdLayout = Shuffleboard.getTab(ShuffleboardTabNames.UTILITIES)
+            .getLayout("SysId", BuiltInLayouts.kList)
+            .withProperties(Map.of("Label position", "TOP"))
+            .withPosition(6, 0)
+            .withSize(3, 6);
+
+        ShooterSubsystem shooter = ShooterSubsystem.getInstance();
+        sysIdLayout.add("Shooter Quasistatic Forward", shooter.getShootingSysIdQuasistatic(SysIdRoutine.Direction.kForward));
+        sysIdLayout.add("Shooter Quasistatic Reverse", shooter.getShootingSysIdQuasistatic(SysIdRoutine.Direction.kReverse));
+        sysIdLayout.add("Shooter Dynamic Forward", shooter.getShootingSysIdDynamic(SysIdRoutine.Direction.kForward));
+        sysIdLayout.add("Shooter Dynamic Reverse", shooter.getShootingSysIdDynamic(SysIdRoutine.Direction.kReverse));
+        sysIdLayout.add("Pivot Quasistatic Forward", shooter.getPivotSysIdQuasistatic(SysIdRoutine.Direction.kForward));
+        sysIdLayout.add("Pivot Quasistatic Reverse", shooter.getPivotSysIdQuasistatic(SysIdRoutine.Direction.kReverse));
+        sysIdLayout.add("Pivot Dynamic Forward", shooter.getPivotSysIdDynamic(SysIdRoutine.Direction.kForward));
+        sysIdLayout.add("Pivot Dynamic Reverse", shooter.getPivotSysIdDynamic(SysIdRoutine.Direction.kReverse));
+
+        // Pivot Motion Magic constraints, applied when the command is run.
+        ShuffleboardLayout pivotLayout = Shuffleboard.getTab(ShuffleboardTabNames.UTILITIES)
+            .getLayout("Pivot Motion Magic", BuiltInLayouts.kList)
+            .withProperties(Map.of("Label position", "TOP"))
+            .withPosition(9, 0)
+            .withSize(3, 6);
+        GenericEntry cruiseVelocity = pivotLayout.add("Cruise Velocity (rps)", ShooterConstants.CRUISE_SPEED).getEntry();
+        GenericEntry acceleration = pivotLayout.add("Acceleration (rps per s)", ShooterConstants.CRUISE_ACCELERATION).getEntry();
+        GenericEntry jerk = pivotLayout.add("Jerk (rps per s^2)", ShooterConstants.MOTION_MAGIC_JERK).getEntry();
+        pivotLayout.add("Apply", Commands.runOnce(() -> shooter.setPivotMotionMagic(
+            cruiseVelocity.getDouble(ShooterConstants.CRUISE_SPEED),
+            acceleration.getDouble(ShooterConstants.CRUISE_ACCELERATION),
+            jerk.getDouble(ShooterConstants.MOTION_MAGIC_JERK)
+        )).ignoringDisable(true).withName("Apply Pivot Motion Magic"));
+    }
+
+    /** Builds the auto chooser from the PathPlanner autos and adds it to Shuffleboard. */
+    private void initializeAutoChooser() {
+        this.autoChooser = AutoBuilder.buildAutoChooser(); // Default auto will be Commands.none()
+        Shuffleboard.getTab(ShuffleboardTabNames.DEFAULT)
+            .add("Auto Chooser", this.autoChooser)
+            .withWidget(BuiltInWidgets.kComboBoxChooser)
+            .withPosition(11, 0)
+            .withSize(4, 1);
     }
 }
\ No newline at end of file
@@ -4,8 +4,6 @@
 
 package frc.robot.auto;
 
-import java.util.Optional;
-
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.filter.SlewRateLimiter;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
@@ -23,7 +21,7 @@ import frc.robot.utilities.Telemetry;
 
 /**
  * A command that drives the bot forward until there is a note in the sterilizer.
- * @see {@link SterilizerSubsystem#getHasNotes()} for the front laser.
+ * @see {@link SterilizerSubsystem#isNoteIndexed()} for the front laser.
  */
 public class DriveToNoteCommand extends Command {
     /** Limits the driving acceleration of the robot. */
@@ -95,7 +93,6 @@ public class DriveToNoteCommand extends Command {
 
     @Override
     public boolean isFinished() {
-        Optional<Boolean> frontLaser = SterilizerSubsystem.getInstance().getHasNotes()[1];
-        return frontLaser.isPresent() && frontLaser.get();
+        return SterilizerSubsystem.getInstance().isNoteIndexed();
     }
 }
@@ -0,0 +1,161 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.can;
+
+import com.ctre.phoenix6.CANBus;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.CANConstants;
+import frc.robot.constants.PhysicalConstants.RobotConstants;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A class that samples the utilization and error counters of the roboRIO CAN bus
+ * and of the CANivore ({@link RobotConstants#SWERVE_CAN_BUS}) and exports them with {@link Metrics}.
+ */
+public class CANBusMonitor {
+    // Thread-safe singleton design pattern.
+    private static volatile CANBusMonitor instance;
+    private static Object mutex = new Object();
+
+    public static CANBusMonitor getInstance() {
+        CANBusMonitor result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new CANBusMonitor();
+            }
+        }
+        return instance;
+    }
+
+    private final BusStatistics rioBus = new BusStatistics(CANConstants.RIO_CAN_BUS);
+    private final BusStatistics swerveBus = new BusStatistics(RobotConstants.SWERVE_CAN_BUS);
+
+    private double lastSample = 0;
+
+    private CANBusMonitor() {}
+
+    /**
+     * Samples both buses if {@link CANConstants#MONITOR_LOOP_TIME} has elapsed since the last sample.
+     * @apiNote This should be called every loop.
+     */
+    public void update() {
+        double timestamp = Timer.getFPGATimestamp();
+        if (timestamp - this.lastSample < CANConstants.MONITOR_LOOP_TIME) return;
+        this.lastSample = timestamp;
+
+        CANStatus rioStatus = RobotController.getCANStatus();
+        this.rioBus.update(
+            rioStatus.percentBusUtilization,
+            rioStatus.busOffCount,
+            rioStatus.txFullCount,
+            rioStatus.receiveErrorCount,
+            rioStatus.transmitErrorCount
+        );
+
+        CANBus.CANBusStatus swerveStatus = CANBus.getStatus(RobotConstants.SWERVE_CAN_BUS);
+        if (swerveStatus.Status.isOK()) {
+            this.swerveBus.update(
+                swerveStatus.BusUtilization,
+                swerveStatus.BusOffCount,
+                swerveStatus.TxFullCount,
+                swerveStatus.REC,
+                swerveStatus.TEC
+            );
+        }
+        else {
+            this.swerveBus.missedSamples.increment();
+        }
+    }
+
+    /**
+     * Gets the averaged utilization of the roboRIO CAN bus.
+     * @return utilization between 0.0 and 1.0.
+     */
+    public double getRioUtilization() {
+        return this.rioBus.averageUtilization.get();
+    }
+
+    /**
+     * Gets the averaged utilization of the CANivore.
+     * @return utilization between 0.0 and 1.0.
+     */
+    public double getSwerveUtilization() {
+        return this.swerveBus.averageUtilization.get();
+    }
+
+    /**
+     * The statistics of a single CAN bus.
+     */
+    private static class BusStatistics {
+        private final String name;
+        private final LinearFilter utilizationFilter = LinearFilter.movingAverage(CANConstants.UTILIZATION_AVERAGE_TAPS);
+        private int lastBusOffCount = -1;
+        private boolean overUtilized = false;
+
+        private final Metrics.Gauge utilization;
+        private final Metrics.Gauge averageUtilization;
+        private final Metrics.Gauge peakUtilization;
+        private final Metrics.Gauge receiveErrors;
+        private final Metrics.Gauge transmitErrors;
+        private final Metrics.Gauge busOffCount;
+        private final Metrics.Gauge txFullCount;
+        private final Metrics.Counter missedSamples;
+
+        private BusStatistics(String name) {
+            this.name = name;
+
+            String prefix = "CAN/" + name + "/";
+            this.utilization = Metrics.gauge(prefix + "Utilization");
+            this.averageUtilization = Metrics.gauge(prefix + "UtilizationAverage");
+            this.peakUtilization = Metrics.gauge(prefix + "UtilizationPeak");
+            this.receiveErrors = Metrics.gauge(prefix + "ReceiveErrors");
+            this.transmitErrors = Metrics.gauge(prefix + "TransmitErrors");
+            this.busOffCount = Metrics.gauge(prefix + "BusOffCount");
+            this.txFullCount = Metrics.gauge(prefix + "TxFullCount");
+            this.missedSamples = Metrics.counter(prefix + "MissedSamples");
+        }
+
+        /**
+         * Updates the statistics with a new sample.
+         * @param utilization between 0.0 and 1.0.
+         * @param busOffCount amount of times the bus went off since boot.
+         * @param txFullCount amount of times the transmit buffer was full since boot.
+         * @param receiveErrors the current receive error counter.
+         * @param transmitErrors the current transmit error counter.
+         */
+        private void update(double utilization, int busOffCount, int txFullCount, int receiveErrors, int transmitErrors) {
+            double average = this.utilizationFilter.calculate(utilization);
+
+            this.utilization.set(utilization);
+            this.averageUtilization.set(average);
+            this.peakUtilization.set(Math.max(this.peakUtilization.get(), utilization));
+            this.receiveErrors.set(receiveErrors);
+            this.transmitErrors.set(transmitErrors);
+            this.busOffCount.set(busOffCount);
+            this.txFullCount.set(txFullCount);
+
+            if (this.lastBusOffCount >= 0 && busOffCount > this.lastBusOffCount) {
+                Telemetry.logMessage("CAN bus " + this.name + " went bus-off " + (busOffCount - this.lastBusOffCount)
+                    + " time(s)", LoggingTags.ERROR);
+            }
+            this.lastBusOffCount = busOffCount;
+
+            // Only log when crossing the threshold to avoid spamming the console.
+            if (!this.overUtilized && average >= CANConstants.UTILIZATION_WARNING) {
+                Telemetry.logMessage("CAN bus " + this.name + " utilization is at "
+                    + Telemetry.D_FORMAT.format(average * 100) + "%", LoggingTags.WARNING);
+            }
+            this.overUtilized = average >= CANConstants.UTILIZATION_WARNING;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.can;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.CANSparkBase.FaultID;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+import au.grapplerobotics.LaserCan;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.CANConstants;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A class that walks the CAN devices round-robin and reports missing devices, sticky faults,
+ * temperatures and firmware versions.
+ * At most {@link CANConstants#HEALTH_DEVICES_PER_LOOP} devices are checked every
+ * {@link CANConstants#HEALTH_LOOP_TIME} so that it never adds more than a fixed amount of CAN traffic.
+ * @apiNote Checks start once the {@link StartupOrchestrator} is done so that booting devices are not reported.
+ */
+public class DeviceHealthMonitor {
+    // Thread-safe singleton design pattern.
+    private static volatile DeviceHealthMonitor instance;
+    private static Object mutex = new Object();
+
+    public static DeviceHealthMonitor getInstance() {
+        DeviceHealthMonitor result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new DeviceHealthMonitor();
+            }
+        }
+        return instance;
+    }
+
+    private final List<DeviceCheck> checks = new ArrayList<DeviceCheck>();
+    /** Index of the next device to check. */
+    private int index = 0;
+    private double lastCheck = 0;
+
+    private final Metrics.Gauge missingDevices = Metrics.gauge("Health/MissingDevices");
+    private final Metrics.Gauge faultedDevices = Metrics.gauge("Health/FaultedDevices");
+
+    private DeviceHealthMonitor() {}
+
+    /**
+     * Adds a REV Spark to the checks and declares its temperature frame to the {@link StatusFrameAllocator}.
+     * @param name of the device, used for reporting.
+     * @param motor the Spark.
+     */
+    public synchronized void spark(String name, CANSparkBase motor) {
+        // The temperature is in status 1, which is otherwise unused on some Sparks.
+        StatusFrameAllocator.getInstance().spark(name, motor)
+            .require(PeriodicFrame.kStatus1, CANConstants.HEALTH_SIGNAL_PERIOD);
+
+        this.checks.add(new SparkCheck(name, motor));
+    }
+
+    /**
+     * Adds a Phoenix 6 device to the checks and declares its health signals to the {@link StatusFrameAllocator}.
+     * @param name of the device, used for reporting.
+     * @param device the Phoenix 6 device.
+     * @param version signal of the device.
+     * @param stickyFaults signal of the device.
+     * @param temperature signal of the device, null if it does not have one.
+     */
+    public synchronized void phoenix(String name, ParentDevice device, StatusSignal<Integer> version,
+        StatusSignal<Integer> stickyFaults, StatusSignal<Double> temperature
+    ) {
+        // The version is declared too, otherwise optimizeBusUtilization turns it off before it is read.
+        StatusFrameAllocator.PhoenixDevice allocatorDevice = StatusFrameAllocator.getInstance().phoenix(name, device)
+            .need(version, CANConstants.HEALTH_SIGNAL_PERIOD)
+            .need(stickyFaults, CANConstants.HEALTH_SIGNAL_PERIOD);
+        if (temperature != null) {
+            allocatorDevice.need(temperature, CANConstants.HEALTH_SIGNAL_PERIOD);
+        }
+
+        this.checks.add(new PhoenixCheck(name, version, stickyFaults, temperature));
+    }
+
+    /**
+     * Adds a LaserCan to the checks.
+     * @param name of the device, used for reporting.
+     * @param laser the LaserCan.
+     */
+    public synchronized void laserCan(String name, LaserCan laser) {
+        this.checks.add(new LaserCanCheck(name, laser));
+    }
+
+    /**
+     * Checks the next devices if {@link CANConstants#HEALTH_LOOP_TIME} has elapsed since the last check.
+     * @apiNote This should be called every loop.
+     */
+    public synchronized void update() {
+        if (this.checks.isEmpty() || !StartupOrchestrator.getInstance().isDone()) return;
+
+        double timestamp = Timer.getFPGATimestamp();
+        if (timestamp - this.lastCheck < CANConstants.HEALTH_LOOP_TIME) return;
+        this.lastCheck = timestamp;
+
+        for (int i = 0; i < Math.min(CANConstants.HEALTH_DEVICES_PER_LOOP, this.checks.size()); i++) {
+            this.checks.get(this.index).check();
+            this.index = (this.index + 1) % this.checks.size();
+        }
+
+        int missing = 0;
+        int faulted = 0;
+        for (DeviceCheck check : this.checks) {
+            if (check.checked && !check.present) missing++;
+            if (check.faults != 0) faulted++;
+        }
+        this.missingDevices.set(missing);
+        this.faultedDevices.set(faulted);
+    }
+
+    /**
+     * The health of a single device.
+     */
+    private static abstract class DeviceCheck {
+        protected final String name;
+        private final Metrics.Gauge temperatureGauge;
+
+        protected boolean checked = false;
+        protected boolean present = false;
+        protected long faults = 0;
+        /** Temperature in degrees Celsius, NaN if the device does not have one. */
+        protected double temperature = Double.NaN;
+        /** Firmware version, null until it has been read. */
+        protected String firmware = null;
+
+        private boolean hot = false;
+
+        private DeviceCheck(String name, boolean hasTemperature) {
+            this.name = name;
+            this.temperatureGauge = hasTemperature ? Metrics.gauge("Health/" + name + "/Temperature") : null;
+        }
+
+        /**
+         * Reads the health of the device into the fields.
+         */
+        protected abstract void poll();
+
+        /**
+         * Describes the faults of the device.
+         * @param faults of the device.
+         * @return the description.
+         */
+        protected String describeFaults(long faults) {
+            return "0x" + Long.toHexString(faults);
+        }
+
+        /**
+         * Polls the device and reports what changed since the last check.
+         */
+        private void check() {
+            boolean wasChecked = this.checked;
+            boolean wasPresent = this.present;
+            long previousFaults = this.faults;
+            String previousFirmware = this.firmware;
+
+            poll();
+            this.checked = true;
+
+            if (!wasChecked && !this.present) {
+                Telemetry.logMessage(this.name + " is not on the bus", LoggingTags.ERROR);
+            }
+            else if (wasPresent && !this.present) {
+                Telemetry.logMessage(this.name + " stopped publishing", LoggingTags.ERROR);
+            }
+            else if (wasChecked && !wasPresent && this.present) {
+                Telemetry.logMessage(this.name + " is publishing again", LoggingTags.WARNING);
+            }
+
+            if (this.present && this.faults != previousFaults && this.faults != 0) {
+                Telemetry.logMessage(this.name + " has sticky faults " + describeFaults(this.faults), LoggingTags.ERROR);
+            }
+
+            if (previousFirmware == null && this.firmware != null) {
+                Telemetry.logMessage(this.name + " firmware " + this.firmware, LoggingTags.INFO);
+            }
+
+            if (this.temperatureGauge != null && this.present) {
+                this.temperatureGauge.set(this.temperature);
+                // Only log when crossing the threshold to avoid spamming the console.
+                if (!this.hot && this.temperature >= CANConstants.HEALTH_TEMPERATURE_WARNING) {
+                    Telemetry.logMessage(this.name + " is at " + Telemetry.D_FORMAT.format(this.temperature) + " C",
+                        LoggingTags.WARNING);
+                }
+                this.hot = this.temperature >= CANConstants.HEALTH_TEMPERATURE_WARNING;
+            }
+        }
+    }
+
+    /**
+     * The health of a REV Spark, read from its periodic status frames.
+     */
+    private static class SparkCheck extends DeviceCheck {
+        private final CANSparkBase motor;
+
+        private SparkCheck(String name, CANSparkBase motor) {
+            super(name, true);
+            this.motor = motor;
+        }
+
+        @Override
+        protected void poll() {
+            this.faults = this.motor.getStickyFaults();
+            this.present = this.motor.getLastError() == REVLibError.kOk;
+            this.temperature = this.motor.getMotorTemperature();
+
+            // The only request that is not answered from the status frames, so it is only made once.
+            if (this.firmware == null && this.present) {
+                this.firmware = this.motor.getFirmwareString();
+            }
+        }
+
+        @Override
+        protected String describeFaults(long faults) {
+            String description = "";
+            for (FaultID fault : FaultID.values()) {
+                if ((faults & (1L << fault.value)) != 0) {
+                    description += (description.isEmpty() ? "" : ", ") + fault.name();
+                }
+            }
+            return description;
+        }
+    }
+
+    /**
+     * The health of a Phoenix 6 device, read from its signals.
+     */
+    private static class PhoenixCheck extends DeviceCheck {
+        private final StatusSignal<Integer> version;
+        private final StatusSignal<Integer> stickyFaults;
+        private final StatusSignal<Double> temperature;
+        private final BaseStatusSignal[] signals;
+
+        private PhoenixCheck(String name, StatusSignal<Integer> version,
+            StatusSignal<Integer> stickyFaults, StatusSignal<Double> temperature
+        ) {
+            super(name, temperature != null);
+            this.version = version;
+            this.stickyFaults = stickyFaults;
+            this.temperature = temperature;
+            this.signals = temperature != null
+                ? new BaseStatusSignal[]{ stickyFaults, temperature }
+                : new BaseStatusSignal[]{ stickyFaults };
+        }
+
+        @Override
+        protected void poll() {
+            // Refreshing reads the latest received values, it does not send anything.
+            this.present = BaseStatusSignal.refreshAll(this.signals).isOK()
+                && this.stickyFaults.getTimestamp().getLatency() < CANConstants.HEALTH_STALE_TIME;
+            this.faults = (long) this.stickyFaults.getValueAsDouble();
+            if (this.temperature != null) {
+                super.temperature = this.temperature.getValueAsDouble();
+            }
+
+            // The version signal is declared to the allocator, so it is still sent after optimizeBusUtilization.
+            if (super.firmware == null && this.version.refresh().getStatus().isOK()) {
+                int version = (int) this.version.getValueAsDouble();
+                super.firmware = ((version >> 24) & 0xFF) + "." + ((version >> 16) & 0xFF) + "."
+                    + ((version >> 8) & 0xFF) + "." + (version & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * The presence of a LaserCan, read from its latest measurement.
+     */
+    private static class LaserCanCheck extends DeviceCheck {
+        private final LaserCan laser;
+
+        private LaserCanCheck(String name, LaserCan laser) {
+            super(name, false);
+            this.laser = laser;
+        }
+
+        @Override
+        protected void poll() {
+            this.present = this.laser.getMeasurement() != null;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.can;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.StatusCode;
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+
+import au.grapplerobotics.ConfigurationFailedException;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.CANConstants;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A class that configures CAN devices on worker threads so that subsystem constructors do not block.
+ * <ul>
+ * <li>Each device is configured by its own task, so devices are configured in parallel
+ * while the steps of one device run in order.</li>
+ * <li>Failed steps are retried, which also covers devices that boot slower than the roboRIO.</li>
+ * <li>The robot is only ready once every device has confirmed its configuration.</li>
+ * </ul>
+ */
+public class StartupOrchestrator {
+    // Thread-safe singleton design pattern.
+    private static volatile StartupOrchestrator instance;
+    private static Object mutex = new Object();
+
+    public static StartupOrchestrator getInstance() {
+        StartupOrchestrator result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new StartupOrchestrator();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * A single configuration call to a device.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * Sends the configuration to the device.
+         * @return whether the device confirmed it.
+         */
+        boolean apply();
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CANConstants.CONFIGURATION_THREADS,
+        (Runnable runnable) -> {
+            Thread thread = new Thread(runnable, "Device Configuration");
+            thread.setDaemon(true);
+            return thread;
+        });
+    private final List<CompletableFuture<Boolean>> tasks = new ArrayList<CompletableFuture<Boolean>>();
+
+    private final double startTime = Timer.getFPGATimestamp();
+    private boolean reported = false;
+
+    private final Metrics.Gauge ready = Metrics.gauge("Startup/Ready");
+    private final Metrics.Gauge failedDevices = Metrics.gauge("Startup/FailedDevices");
+    private final Metrics.Counter retries = Metrics.counter("Startup/Retries");
+
+    private StartupOrchestrator() {}
+
+    /**
+     * Configures a device on a worker thread.
+     * @param device name, used for reporting.
+     * @param steps to run in order. Each step is retried up to {@link CANConstants#CONFIGURATION_ATTEMPTS} times.
+     * @return a future completed with whether every step succeeded.
+     */
+    public synchronized CompletableFuture<Boolean> configure(String device, Step... steps) {
+        CompletableFuture<Boolean> task = CompletableFuture.supplyAsync(() -> run(device, steps), this.executor);
+        this.tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Configures a device on a worker thread once every previously submitted configuration has finished.
+     * @param device name, used for reporting.
+     * @param steps to run in order. Each step is retried up to {@link CANConstants#CONFIGURATION_ATTEMPTS} times.
+     * @return a future completed with whether every step succeeded.
+     */
+    public synchronized CompletableFuture<Boolean> configureAfterAll(String device, Step... steps) {
+        CompletableFuture<Void> previous = CompletableFuture.allOf(this.tasks.toArray(new CompletableFuture<?>[0]));
+        CompletableFuture<Boolean> task = previous.thenApplyAsync((Void ignored) -> run(device, steps), this.executor);
+        this.tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Checks if every device has finished configuring, successfully or not.
+     * @return whether startup configuration is done.
+     */
+    public synchronized boolean isDone() {
+        for (CompletableFuture<Boolean> task : this.tasks) {
+            if (!task.isDone()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if every device has confirmed its configuration.
+     * @return whether the robot is ready.
+     */
+    public synchronized boolean isReady() {
+        return isDone() && countFailures() == 0;
+    }
+
+    /**
+     * Reports the result of the startup configuration once it is done.
+     * @apiNote This should be called every loop.
+     */
+    public void update() {
+        if (this.reported || !isDone()) return;
+        this.reported = true;
+
+        int failures = countFailures();
+        String duration = Telemetry.D_FORMAT.format(Timer.getFPGATimestamp() - this.startTime);
+        this.failedDevices.set(failures);
+        this.ready.set(failures == 0 ? 1 : 0);
+
+        if (failures == 0) {
+            Telemetry.logMessage("Robot ready, configured " + this.tasks.size() + " devices in " + duration + " sec",
+                LoggingTags.INFO);
+        }
+        else {
+            Telemetry.logMessage(failures + " of " + this.tasks.size() + " devices failed to configure after "
+                + duration + " sec", LoggingTags.ERROR);
+        }
+    }
+
+    /**
+     * A LaserCan configuration call, which throws when the sensor does not confirm it.
+     */
+    @FunctionalInterface
+    public interface LaserCanCall {
+        /**
+         * Sends the configuration to the LaserCan.
+         * @throws ConfigurationFailedException if the LaserCan did not confirm it.
+         */
+        void run() throws ConfigurationFailedException;
+    }
+
+    /**
+     * Creates a step from a Phoenix 6 call.
+     * @param call that returns a status code.
+     * @return the step.
+     */
+    public static Step phoenix(Supplier<StatusCode> call) {
+        return () -> call.get().isOK();
+    }
+
+    /**
+     * Creates a step from a REV call.
+     * @param call that returns an error.
+     * @return the step.
+     */
+    public static Step rev(Supplier<REVLibError> call) {
+        return () -> call.get() == REVLibError.kOk;
+    }
+
+    /**
+     * Creates a step from a REV call that does not return an error.
+     * @param motor the call is made on, used to check {@link CANSparkBase#getLastError()}.
+     * @param call to make.
+     * @return the step.
+     */
+    public static Step rev(CANSparkBase motor, Runnable call) {
+        return () -> {
+            call.run();
+            return motor.getLastError() == REVLibError.kOk;
+        };
+    }
+
+    /**
+     * Creates a step from a LaserCan call.
+     * @param call that throws when it fails.
+     * @return the step.
+     */
+    public static Step laserCan(LaserCanCall call) {
+        return () -> {
+            try {
+                call.run();
+                return true;
+            }
+            catch (ConfigurationFailedException error) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Counts the tasks that finished without succeeding.
+     * @return the amount of failed tasks.
+     */
+    private synchronized int countFailures() {
+        int failures = 0;
+        for (CompletableFuture<Boolean> task : this.tasks) {
+            if (task.isDone() && !task.getNow(false)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Runs the steps of a device in order, stopping at the first step that fails every attempt.
+     * @param device name, used for reporting.
+     * @param steps to run.
+     * @return whether every step succeeded.
+     */
+    private boolean run(String device, Step[] steps) {
+        for (int i = 0; i < steps.length; i++) {
+            if (!runStep(device, i + 1, steps[i])) {
+                Telemetry.logMessage("Could not configure " + device + ", step " + (i + 1) + " failed "
+                    + CANConstants.CONFIGURATION_ATTEMPTS + " times", LoggingTags.ERROR);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs a step until it succeeds or runs out of attempts.
+     * @param device name, used for reporting.
+     * @param stepNumber of the step, used for reporting.
+     * @param step to run.
+     * @return whether the step succeeded.
+     */
+    private boolean runStep(String device, int stepNumber, Step step) {
+        for (int attempt = 1; attempt <= CANConstants.CONFIGURATION_ATTEMPTS; attempt++) {
+            try {
+                if (step.apply()) {
+                    if (attempt > 1) {
+                        Telemetry.logMessage("Configured " + device + " step " + stepNumber + " after "
+                            + attempt + " attempts", LoggingTags.WARNING);
+                    }
+                    return true;
+                }
+            }
+            catch (RuntimeException error) {
+                Telemetry.logMessage(device + " step " + stepNumber + " threw " + error, LoggingTags.ERROR);
+            }
+
+            if (attempt == CANConstants.CONFIGURATION_ATTEMPTS) break;
+            // Metrics are not thread-safe and several workers can retry at once.
+            synchronized (this) {
+                this.retries.increment();
+            }
+            try {
+                Thread.sleep((long) (CANConstants.CONFIGURATION_RETRY_DELAY * 1000));
+            }
+            catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
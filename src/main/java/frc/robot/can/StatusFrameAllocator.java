@@ -0,0 +1,825 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.can;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.CANConstants;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A class that chooses the periods of the status frames of every CAN device
+ * from the signals each device declares it needs.
+ * <ul>
+ * <li>Needed frames get the period they ask for. Frames with a maximum period
+ * are stretched towards it until the bus is under {@link CANConstants#STATUS_FRAME_LOAD_TARGET}.</li>
+ * <li>Stretched frames and frames that are not needed get distinct prime periods
+ * so that they do not keep colliding with each other.</li>
+ * </ul>
+ * Phoenix 6 signals that are not declared are disabled with {@code optimizeBusUtilization}.
+ * Needs can differ per {@link RobotMode}, and a {@link Boost} can temporarily speed up a frame
+ * while a mechanism is in use.
+ * @apiNote Declare frames in the subsystem constructors, then call {@link StatusFrameAllocator#allocate()}
+ * once every subsystem has been created.
+ */
+public class StatusFrameAllocator {
+    // Thread-safe singleton design pattern.
+    private static volatile StatusFrameAllocator instance;
+    private static Object mutex = new Object();
+
+    public static StatusFrameAllocator getInstance() {
+        StatusFrameAllocator result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new StatusFrameAllocator();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * The modes that have their own status frame needs.
+     */
+    public enum RobotMode {
+        DISABLED,
+        AUTONOMOUS,
+        TELEOP,
+        TEST
+    }
+
+    /** Amount the flexible frames are stretched by at each step when the bus is over budget. */
+    private static final double STRETCH_STEP = 0.05;
+
+    private final List<Device> devices = new ArrayList<Device>();
+    /** Next period to try when handing out periods to unused frames. */
+    private int nextUnusedPeriod;
+    private boolean warnedOutOfPeriods;
+
+    private volatile RobotMode mode = RobotMode.DISABLED;
+    private volatile boolean allocated = false;
+
+    private StatusFrameAllocator() {}
+
+    /**
+     * Switches the needs of every frame to those of a mode and re-allocates the buses if it changed.
+     * @param mode the robot is now in.
+     * @apiNote This should be called from each mode's init method.
+     * Before the first allocation it only records the mode so that it does not wait on it.
+     */
+    public void setMode(RobotMode mode) {
+        if (this.mode == mode) return;
+        this.mode = mode;
+
+        if (this.allocated) {
+            allocateModes(false);
+        }
+    }
+
+    /**
+     * Gets the mode the frames are currently allocated for.
+     * @return the mode.
+     */
+    public RobotMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Declares the frames of a REV Spark.
+     * Frames that are not declared with {@link SparkDevice#need(PeriodicFrame, int)} are considered unused.
+     * @param name of the device, used for reporting.
+     * @param motor the Spark.
+     * @return the device to declare frames on.
+     */
+    public synchronized SparkDevice spark(String name, CANSparkBase motor) {
+        // Several classes can declare frames of the same Spark, keep a single entry so their needs are merged.
+        for (Device existing : this.devices) {
+            if (existing instanceof SparkDevice && ((SparkDevice) existing).motor == motor) {
+                return (SparkDevice) existing;
+            }
+        }
+
+        SparkDevice device = new SparkDevice(name, motor);
+        this.devices.add(device);
+        return device;
+    }
+
+    /**
+     * Declares the signals of a Phoenix 6 device.
+     * Signals that are not declared with {@link PhoenixDevice#need(StatusSignal, int)}
+     * are disabled by {@link StatusFrameAllocator#allocate()}.
+     * @param name of the device, used for reporting.
+     * @param device the Phoenix 6 device.
+     * @return the device to declare signals on, the existing one if the device was already declared.
+     */
+    public synchronized PhoenixDevice phoenix(String name, ParentDevice device) {
+        // Several classes can declare signals of the same device, keep a single entry so it is optimized once.
+        for (Device existing : this.devices) {
+            if (existing instanceof PhoenixDevice && ((PhoenixDevice) existing).device == device) {
+                return (PhoenixDevice) existing;
+            }
+        }
+
+        PhoenixDevice phoenixDevice = new PhoenixDevice(name, device);
+        this.devices.add(phoenixDevice);
+        return phoenixDevice;
+    }
+
+    /**
+     * Computes the period of every declared frame for the current {@link RobotMode},
+     * applies them and reports the budget of each bus.
+     * @return whether every frame was applied and confirmed.
+     * @implNote Each call waits for the devices to confirm the frames that are not applied yet,
+     * disables every Phoenix 6 signal that was not declared and verifies that the declared ones are being received,
+     * so a retry after a failure redoes the devices that failed.
+     */
+    public synchronized boolean allocate() {
+        return allocateModes(true) == 0;
+    }
+
+    /**
+     * Allocates the frames for the current mode, again if the mode changed while the buses were being configured.
+     * @param confirm whether to wait for the devices and optimize the Phoenix 6 devices that are not yet.
+     * @return the amount of frames and devices that failed.
+     */
+    private synchronized int allocateModes(boolean confirm) {
+        RobotMode allocatedMode;
+        int failures;
+        do {
+            allocatedMode = this.mode;
+            failures = allocate(allocatedMode, confirm);
+        } while (allocatedMode != this.mode);
+        return failures;
+    }
+
+    /**
+     * Computes, applies and reports the periods of every declared frame.
+     * @param mode to allocate the frames for.
+     * @param confirm whether to wait for the devices and optimize the Phoenix 6 devices that are not yet.
+     * @return the amount of frames and devices that failed.
+     */
+    private int allocate(RobotMode mode, boolean confirm) {
+        Map<String, List<Device>> buses = new LinkedHashMap<String, List<Device>>();
+        for (Device device : this.devices) {
+            List<Device> busDevices = buses.get(device.bus);
+            if (busDevices == null) {
+                busDevices = new ArrayList<Device>();
+                buses.put(device.bus, busDevices);
+            }
+            busDevices.add(device);
+        }
+
+        this.nextUnusedPeriod = CANConstants.UNUSED_FRAME_PERIOD;
+        this.warnedOutOfPeriods = false;
+
+        // Mode switches happen while the robot is running and do not wait for confirmation.
+        double timeout = confirm ? CANConstants.CONFIGURATION_TIMEOUT : 0;
+
+        int totalFailures = 0;
+        for (Map.Entry<String, List<Device>> bus : buses.entrySet()) {
+            List<Frame> frames = new ArrayList<Frame>();
+            for (Device device : bus.getValue()) {
+                frames.addAll(device.frames);
+            }
+
+            double load = allocateBus(frames, mode);
+            int failures = applyBus(frames, timeout);
+            if (confirm) {
+                failures += optimizeBus(bus.getValue());
+            }
+            report(bus.getKey(), frames.size(), load, failures);
+            totalFailures += failures;
+        }
+        this.allocated = true;
+        return totalFailures;
+    }
+
+    /**
+     * Computes the periods of the frames on a bus.
+     * @param frames on the bus.
+     * @param mode to use the needs of.
+     * @return the estimated load of the status frames between 0.0 and 1.0.
+     */
+    private double allocateBus(List<Frame> frames, RobotMode mode) {
+        Set<Integer> takenPeriods = new HashSet<Integer>();
+        List<Frame> flexibleFrames = new ArrayList<Frame>();
+        double fixedLoad = 0;
+
+        int modeIndex = mode.ordinal();
+        for (Frame frame : frames) {
+            frame.desiredPeriod = frame.desiredPeriods[modeIndex];
+            frame.maxPeriod = frame.maxPeriods[modeIndex];
+            // The required period is a floor in every mode, faster needs are kept.
+            if (frame.requiredPeriod > 0) {
+                if (frame.desiredPeriod <= 0) {
+                    frame.desiredPeriod = frame.requiredPeriod;
+                    frame.maxPeriod = frame.requiredPeriod;
+                }
+                else {
+                    frame.desiredPeriod = Math.min(frame.desiredPeriod, frame.requiredPeriod);
+                    frame.maxPeriod = Math.max(frame.desiredPeriod, Math.min(frame.maxPeriod, frame.requiredPeriod));
+                }
+            }
+
+            if (frame.desiredPeriod <= 0) {
+                frame.period = nextUnusedPeriod(frame.maxAllowedPeriod);
+                fixedLoad += load(frame.period);
+            }
+            else if (frame.maxPeriod <= frame.desiredPeriod) {
+                frame.period = frame.desiredPeriod;
+                fixedLoad += load(frame.period);
+            }
+            else {
+                flexibleFrames.add(frame);
+            }
+        }
+
+        // Find the smallest stretch that fits in the budget.
+        double stretch = 0;
+        while (stretch < 1 && fixedLoad + flexibleLoad(flexibleFrames, stretch) > CANConstants.STATUS_FRAME_LOAD_TARGET) {
+            stretch = Math.min(1, stretch + STRETCH_STEP);
+        }
+
+        double load = fixedLoad;
+        for (Frame frame : flexibleFrames) {
+            double period = frame.desiredPeriod + stretch * (frame.maxPeriod - frame.desiredPeriod);
+            frame.period = distinctPeriod(period, frame.maxPeriod, takenPeriods);
+            load += load(frame.period);
+        }
+        return load;
+    }
+
+    /**
+     * Applies the computed periods of the frames that changed.
+     * @param frames on the bus.
+     * @param timeout in seconds to wait for each device to confirm, 0 to not wait.
+     * @return the amount of frames that could not be applied.
+     */
+    private int applyBus(List<Frame> frames, double timeout) {
+        int failures = 0;
+        for (Frame frame : frames) {
+            if (!applyFrame(frame, timeout)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Applies the period of a frame, including its {@link Boost}, if it changed.
+     * @param frame to apply.
+     * @param timeout in seconds to wait for the device to confirm, 0 to not wait.
+     * @return whether the device accepted the period.
+     */
+    private static boolean applyFrame(Frame frame, double timeout) {
+        int period = frame.getTargetPeriod();
+        if (period == frame.appliedPeriod) return true;
+
+        if (frame.apply(period, timeout)) {
+            frame.appliedPeriod = period;
+            return true;
+        }
+        Telemetry.logMessage("Could not set " + frame.getName() + " to " + period + " ms", LoggingTags.ERROR);
+        return false;
+    }
+
+    /**
+     * Disables the undeclared signals of the Phoenix 6 devices on a bus that are not optimized yet,
+     * then waits for a fresh sample of every declared signal.
+     * @param devices on the bus.
+     * @return the amount of devices that failed.
+     */
+    private static int optimizeBus(List<Device> devices) {
+        int failures = 0;
+        for (Device device : devices) {
+            if (!(device instanceof PhoenixDevice) || ((PhoenixDevice) device).optimized) continue;
+            PhoenixDevice phoenixDevice = (PhoenixDevice) device;
+
+            StatusCode status = phoenixDevice.device.optimizeBusUtilization(CANConstants.CONFIGURATION_TIMEOUT);
+            if (status.isOK()) {
+                status = phoenixDevice.verify();
+            }
+            if (status.isOK()) {
+                phoenixDevice.optimized = true;
+            }
+            else {
+                failures++;
+                Telemetry.logMessage("Could not configure the signals of " + device.name + ": " + status.getName(),
+                    LoggingTags.ERROR);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Logs and publishes the budget of a bus.
+     * @param bus name.
+     * @param frameCount amount of frames on the bus.
+     * @param load estimated load between 0.0 and 1.0.
+     * @param failures amount of frames that could not be applied.
+     */
+    private void report(String bus, int frameCount, double load, int failures) {
+        Metrics.gauge("CAN/" + bus + "/StatusFrameLoad").set(load);
+        Metrics.gauge("CAN/" + bus + "/StatusFrames").set(frameCount);
+
+        boolean overBudget = load > CANConstants.STATUS_FRAME_LOAD_TARGET;
+        Telemetry.logMessage("CAN budget " + bus + ": " + frameCount + " frames, "
+            + Telemetry.D_FORMAT.format(load * 100) + "% of "
+            + Telemetry.D_FORMAT.format(CANConstants.STATUS_FRAME_LOAD_TARGET * 100) + "% target"
+            + (failures > 0 ? ", " + failures + " failed" : ""),
+            overBudget || failures > 0 ? LoggingTags.WARNING : LoggingTags.INFO);
+    }
+
+    /**
+     * Estimates the bus load of the flexible frames.
+     * @param frames that can be stretched.
+     * @param stretch between 0.0 (desired period) and 1.0 (maximum period).
+     * @return the load between 0.0 and 1.0.
+     */
+    private static double flexibleLoad(List<Frame> frames, double stretch) {
+        double load = 0;
+        for (Frame frame : frames) {
+            load += load(frame.desiredPeriod + stretch * (frame.maxPeriod - frame.desiredPeriod));
+        }
+        return load;
+    }
+
+    /**
+     * Estimates the bus load of a single frame.
+     * @param period of the frame in milliseconds.
+     * @return the load between 0.0 and 1.0.
+     */
+    private static double load(double period) {
+        return CANConstants.FRAME_BITS * (1000.0 / period) / CANConstants.BUS_BIT_RATE;
+    }
+
+    /**
+     * Finds a prime period that no other flexible frame on the bus uses.
+     * @param period smallest acceptable period in milliseconds.
+     * @param maxPeriod largest acceptable period in milliseconds.
+     * @param takenPeriods periods already given out on the bus.
+     * @return the period, or {@code period} rounded up if there is no free prime.
+     */
+    private static int distinctPeriod(double period, int maxPeriod, Set<Integer> takenPeriods) {
+        int start = (int) Math.ceil(period);
+        for (int candidate = start; candidate <= maxPeriod; candidate++) {
+            if (isPrime(candidate) && takenPeriods.add(candidate)) {
+                return candidate;
+            }
+        }
+        return Math.min(start, maxPeriod);
+    }
+
+    /**
+     * Gets the next prime period for frames that are not needed.
+     * Periods wrap around when they go past what the device allows instead of running out.
+     * @param maxAllowedPeriod largest period the device allows in milliseconds.
+     * @return the period in milliseconds.
+     */
+    private int nextUnusedPeriod(int maxAllowedPeriod) {
+        if (maxAllowedPeriod < CANConstants.UNUSED_FRAME_PERIOD) {
+            return maxAllowedPeriod;
+        }
+
+        int candidate = this.nextUnusedPeriod;
+        while (true) {
+            if (candidate > maxAllowedPeriod) {
+                if (!this.warnedOutOfPeriods) {
+                    Telemetry.logMessage("Ran out of unique periods for unused status frames, reusing them", LoggingTags.WARNING);
+                    this.warnedOutOfPeriods = true;
+                }
+                candidate = CANConstants.UNUSED_FRAME_PERIOD;
+            }
+            if (isPrime(candidate)) break;
+            candidate++;
+        }
+
+        this.nextUnusedPeriod = candidate + 1;
+        return candidate;
+    }
+
+    /**
+     * Checks if a number is prime.
+     * @param number to check.
+     * @return whether it is prime.
+     */
+    private static boolean isPrime(int number) {
+        if (number < 2) return false;
+        if (number % 2 == 0) return number == 2;
+        for (int divisor = 3; divisor * divisor <= number; divisor += 2) {
+            if (number % divisor == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * A device on a CAN bus that publishes frames.
+     */
+    private static abstract class Device {
+        protected final String name;
+        protected final String bus;
+        protected final List<Frame> frames = new ArrayList<Frame>();
+
+        private Device(String name, String bus) {
+            this.name = name;
+            this.bus = bus;
+        }
+    }
+
+    /**
+     * A status frame or signal of a device.
+     */
+    private static abstract class Frame {
+        protected final Device device;
+        /** Period in milliseconds the frame would like in each {@link RobotMode}, 0 if the frame is not needed. */
+        protected final int[] desiredPeriods = new int[RobotMode.values().length];
+        /** Period in milliseconds the frame can be stretched to in each {@link RobotMode} when the bus is over budget. */
+        protected final int[] maxPeriods = new int[RobotMode.values().length];
+        /** Largest period in milliseconds the device allows for this frame. */
+        protected final int maxAllowedPeriod;
+
+        /** Largest period in milliseconds the frame is sent at in any mode, 0 if it has none. */
+        protected int requiredPeriod = 0;
+
+        /** Needs of the mode being allocated. */
+        protected int desiredPeriod = 0;
+        protected int maxPeriod = 0;
+
+        protected int period = 0;
+        protected int appliedPeriod = -1;
+        /** Period in milliseconds used while boosted, 0 if the frame has no {@link Boost}. */
+        protected int boostPeriod = 0;
+        protected boolean boosted = false;
+
+        private Frame(Device device, int maxAllowedPeriod) {
+            this.device = device;
+            this.maxAllowedPeriod = maxAllowedPeriod;
+        }
+
+        /**
+         * Sets the needs of the frame.
+         * @param mode to set the needs of, {@code null} for every mode.
+         * @param period desired period in milliseconds, 0 if the frame is not needed.
+         * @param maxPeriod largest acceptable period in milliseconds.
+         */
+        protected void setNeed(RobotMode mode, int period, int maxPeriod) {
+            period = Math.min(period, this.maxAllowedPeriod);
+            maxPeriod = Math.max(period, Math.min(maxPeriod, this.maxAllowedPeriod));
+
+            if (mode == null) {
+                Arrays.fill(this.desiredPeriods, period);
+                Arrays.fill(this.maxPeriods, maxPeriod);
+            }
+            else {
+                this.desiredPeriods[mode.ordinal()] = period;
+                this.maxPeriods[mode.ordinal()] = maxPeriod;
+            }
+        }
+
+        /**
+         * Gets the period the frame should be sent at right now.
+         * @return the allocated period, or the boost period if it is boosted and faster.
+         */
+        protected int getTargetPeriod() {
+            return this.boosted && this.boostPeriod > 0 && this.boostPeriod < this.period ? this.boostPeriod : this.period;
+        }
+
+        /**
+         * Gets a readable name of the frame.
+         * @return the name.
+         */
+        protected abstract String getName();
+
+        /**
+         * Sends the period to the device.
+         * @param period in milliseconds.
+         * @param timeout in seconds to wait for the device to confirm, 0 to not wait.
+         * @return whether the device accepted it.
+         */
+        protected abstract boolean apply(int period, double timeout);
+    }
+
+    /**
+     * A handle that speeds up a frame while a mechanism is in use, without re-allocating the bus.
+     * The frame goes back to its allocated period when the boost is released.
+     */
+    public static class Boost {
+        private final Frame frame;
+
+        private Boost(Frame frame) {
+            this.frame = frame;
+        }
+
+        /**
+         * Boosts or releases the frame. Does nothing if it is already in that state.
+         * @param boosted whether the frame should be sent at its boost period.
+         */
+        public void set(boolean boosted) {
+            if (this.frame.boosted == boosted) return;
+
+            // Do not wait on the first allocation, it applies the boost itself.
+            if (!StatusFrameAllocator.getInstance().allocated) {
+                this.frame.boosted = boosted;
+                return;
+            }
+            synchronized (StatusFrameAllocator.getInstance()) {
+                this.frame.boosted = boosted;
+                if (StatusFrameAllocator.getInstance().allocated) {
+                    applyFrame(this.frame, 0);
+                }
+            }
+        }
+
+        /**
+         * Checks if the frame is boosted.
+         * @return whether it is boosted.
+         */
+        public boolean isBoosted() {
+            return this.frame.boosted;
+        }
+    }
+
+    /**
+     * A REV Spark whose periodic status frames are managed by the {@link StatusFrameAllocator}.
+     */
+    public static class SparkDevice extends Device {
+        private final CANSparkBase motor;
+        private final Map<PeriodicFrame, SparkFrame> sparkFrames = new LinkedHashMap<PeriodicFrame, SparkFrame>();
+
+        private SparkDevice(String name, CANSparkBase motor) {
+            super(name, CANConstants.RIO_CAN_BUS);
+            this.motor = motor;
+
+            for (PeriodicFrame frame : PeriodicFrame.values()) {
+                SparkFrame sparkFrame = new SparkFrame(this, frame);
+                this.sparkFrames.put(frame, sparkFrame);
+                this.frames.add(sparkFrame);
+            }
+        }
+
+        /**
+         * Declares that a frame is needed at a fixed period.
+         * @param frame the status frame.
+         * @param period in milliseconds.
+         * @return this device.
+         */
+        public SparkDevice need(PeriodicFrame frame, int period) {
+            return need(frame, period, period);
+        }
+
+        /**
+         * Declares that a frame is needed and can be slowed down when the bus is busy.
+         * @param frame the status frame.
+         * @param period desired period in milliseconds.
+         * @param maxPeriod largest acceptable period in milliseconds.
+         * @return this device.
+         */
+        public SparkDevice need(PeriodicFrame frame, int period, int maxPeriod) {
+            return need(null, frame, period, maxPeriod);
+        }
+
+        /**
+         * Overrides the need of a frame in one mode.
+         * @param mode the need applies to.
+         * @param frame the status frame.
+         * @param period in milliseconds, 0 if the frame is not needed in this mode.
+         * @return this device.
+         */
+        public SparkDevice need(RobotMode mode, PeriodicFrame frame, int period) {
+            return need(mode, frame, period, period);
+        }
+
+        /**
+         * Overrides the need of a frame in one mode.
+         * @param mode the need applies to, {@code null} for every mode.
+         * @param frame the status frame.
+         * @param period desired period in milliseconds, 0 if the frame is not needed in this mode.
+         * @param maxPeriod largest acceptable period in milliseconds.
+         * @return this device.
+         */
+        public SparkDevice need(RobotMode mode, PeriodicFrame frame, int period, int maxPeriod) {
+            synchronized (StatusFrameAllocator.getInstance()) {
+                this.sparkFrames.get(frame).setNeed(mode, period, maxPeriod);
+            }
+            return this;
+        }
+
+        /**
+         * Declares that a frame must be sent at least at a period in every mode, whatever its other needs.
+         * @param frame the status frame.
+         * @param period largest period in milliseconds.
+         * @return this device.
+         */
+        public SparkDevice require(PeriodicFrame frame, int period) {
+            synchronized (StatusFrameAllocator.getInstance()) {
+                SparkFrame sparkFrame = this.sparkFrames.get(frame);
+                sparkFrame.requiredPeriod = sparkFrame.requiredPeriod > 0
+                    ? Math.min(sparkFrame.requiredPeriod, period) : period;
+            }
+            return this;
+        }
+
+        /**
+         * Creates a {@link Boost} for a frame.
+         * @param frame the status frame.
+         * @param period in milliseconds while boosted.
+         * @return the boost, released by default.
+         */
+        public Boost boost(PeriodicFrame frame, int period) {
+            synchronized (StatusFrameAllocator.getInstance()) {
+                SparkFrame sparkFrame = this.sparkFrames.get(frame);
+                sparkFrame.boostPeriod = period;
+                return new Boost(sparkFrame);
+            }
+        }
+
+        /**
+         * A periodic status frame of a Spark.
+         */
+        private static class SparkFrame extends Frame {
+            private final PeriodicFrame frame;
+
+            private SparkFrame(SparkDevice device, PeriodicFrame frame) {
+                super(device, CANConstants.REV_MAX_FRAME_PERIOD);
+                this.frame = frame;
+            }
+
+            @Override
+            protected String getName() {
+                return this.device.name + " " + this.frame.name();
+            }
+
+            @Override
+            protected boolean apply(int period, double timeout) {
+                return ((SparkDevice) this.device).motor.setPeriodicFramePeriod(this.frame, period) == REVLibError.kOk;
+            }
+        }
+    }
+
+    /**
+     * A Phoenix 6 device whose status signals are managed by the {@link StatusFrameAllocator}.
+     */
+    public static class PhoenixDevice extends Device {
+        private final ParentDevice device;
+        // Keyed by the caller's signal, each frame keeps its own copy for the worker threads.
+        private final Map<StatusSignal<?>, PhoenixSignal> signals = new IdentityHashMap<StatusSignal<?>, PhoenixSignal>();
+        /** Whether the undeclared signals were disabled and the declared ones verified. */
+        private boolean optimized = false;
+
+        private PhoenixDevice(String name, ParentDevice device) {
+            // Phoenix uses an empty name for the roboRIO's bus by default.
+            super(name, device.getNetwork().isEmpty() ? CANConstants.RIO_CAN_BUS : device.getNetwork());
+            this.device = device;
+        }
+
+        /**
+         * Declares that a signal is needed at a fixed period.
+         * @param signal the status signal.
+         * @param period in milliseconds, at most {@link CANConstants#PHOENIX_MAX_SIGNAL_PERIOD}.
+         * @return this device.
+         */
+        public PhoenixDevice need(StatusSignal<?> signal, int period) {
+            return need(signal, period, period);
+        }
+
+        /**
+         * Declares that a signal is needed and can be slowed down when the bus is busy.
+         * @param signal the status signal.
+         * @param period desired period in milliseconds.
+         * @param maxPeriod largest acceptable period in milliseconds, at most {@link CANConstants#PHOENIX_MAX_SIGNAL_PERIOD}.
+         * @return this device.
+         */
+        public PhoenixDevice need(StatusSignal<?> signal, int period, int maxPeriod) {
+            return need(null, signal, period, maxPeriod);
+        }
+
+        /**
+         * Overrides the need of a signal in one mode.
+         * @param mode the need applies to.
+         * @param signal the status signal.
+         * @param period in milliseconds, at most {@link CANConstants#PHOENIX_MAX_SIGNAL_PERIOD}.
+         * @return this device.
+         */
+        public PhoenixDevice need(RobotMode mode, StatusSignal<?> signal, int period) {
+            return need(mode, signal, period, period);
+        }
+
+        /**
+         * Overrides the need of a signal in one mode.
+         * @param mode the need applies to, {@code null} for every mode.
+         * @param signal the status signal.
+         * @param period desired period in milliseconds.
+         * @param maxPeriod largest acceptable period in milliseconds, at most {@link CANConstants#PHOENIX_MAX_SIGNAL_PERIOD}.
+         * @return this device.
+         */
+        public PhoenixDevice need(RobotMode mode, StatusSignal<?> signal, int period, int maxPeriod) {
+            synchronized (StatusFrameAllocator.getInstance()) {
+                getSignal(signal).setNeed(mode, period, maxPeriod);
+            }
+            return this;
+        }
+
+        /**
+         * Creates a {@link Boost} for a signal.
+         * @param signal the status signal.
+         * @param period in milliseconds while boosted.
+         * @return the boost, released by default.
+         */
+        public Boost boost(StatusSignal<?> signal, int period) {
+            synchronized (StatusFrameAllocator.getInstance()) {
+                PhoenixSignal phoenixSignal = getSignal(signal);
+                phoenixSignal.boostPeriod = period;
+                return new Boost(phoenixSignal);
+            }
+        }
+
+        /**
+         * Gets the frame of a signal, creating it the first time.
+         * @param signal the status signal.
+         * @return the frame.
+         */
+        private PhoenixSignal getSignal(StatusSignal<?> signal) {
+            PhoenixSignal phoenixSignal = this.signals.get(signal);
+            if (phoenixSignal == null) {
+                phoenixSignal = new PhoenixSignal(this, signal);
+                this.signals.put(signal, phoenixSignal);
+                this.frames.add(phoenixSignal);
+            }
+            return phoenixSignal;
+        }
+
+        /**
+         * Waits for every declared signal to receive new data.
+         * @return the status of the slowest signal, OK if none were declared.
+         */
+        private StatusCode verify() {
+            if (this.signals.isEmpty()) return StatusCode.OK;
+
+            int slowestPeriod = 0;
+            for (PhoenixSignal signal : this.signals.values()) {
+                slowestPeriod = Math.max(slowestPeriod, signal.getTargetPeriod());
+            }
+            // Two periods gives every signal a chance to be sent at least once.
+            double timeout = 2 * slowestPeriod / 1000.0;
+            BaseStatusSignal[] copies = new BaseStatusSignal[this.signals.size()];
+            int i = 0;
+            for (PhoenixSignal signal : this.signals.values()) {
+                copies[i++] = signal.signal;
+            }
+            return BaseStatusSignal.waitForAll(timeout, copies);
+        }
+
+        /**
+         * Gets the underlying Phoenix 6 device.
+         * @return the device.
+         */
+        public ParentDevice getDevice() {
+            return this.device;
+        }
+
+        /**
+         * A status signal of a Phoenix 6 device.
+         * @implNote Phoenix packs several signals in one frame, so counting each signal as a frame
+         * over-estimates the load.
+         */
+        private static class PhoenixSignal extends Frame {
+            /** A copy of the declared signal, waited on from the worker threads while the main loop reads the original. */
+            private final StatusSignal<?> signal;
+
+            private PhoenixSignal(PhoenixDevice device, StatusSignal<?> signal) {
+                super(device, CANConstants.PHOENIX_MAX_SIGNAL_PERIOD);
+                this.signal = signal.clone();
+            }
+
+            @Override
+            protected String getName() {
+                return this.device.name + " " + this.signal.getName();
+            }
+
+            @Override
+            protected boolean apply(int period, double timeout) {
+                return this.signal.setUpdateFrequency(1000.0 / period, timeout).isOK();
+            }
+        }
+    }
+}
@@ -4,16 +4,12 @@
 
 package frc.robot.constants;
 
-import java.util.Optional;
-
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
 import frc.robot.constants.PhysicalConstants.IntakeConstants;
 import frc.robot.constants.PhysicalConstants.ShooterConstants;
 import frc.robot.constants.PhysicalConstants.SwerveKinematics;
-import frc.robot.swerve.SwerveSubsystem;
+import frc.robot.shooter.ShotSolution;
+import frc.robot.shooter.ShotSolver;
 import frc.robot.utilities.Telemetry;
 
 /**
@@ -22,38 +18,39 @@ import frc.robot.utilities.Telemetry;
 public final class Constants {
     /** Stores all shooter configuration related data. */
     public static enum ShooterStates {
-        FRONT_EJECT(false, false, false, ShooterConstants.Pivot.ANGLE_LIMITS[0], 25.0, 750.0),
-        INTAKE(false, true, false, ShooterConstants.Pivot.ANGLE_LIMITS[0], null, null, null),
-        AMP(false, true, false, ShooterConstants.Pivot.ANGLE_LIMITS[1], 10.0, 435.0),
-        SPEAKER(false, true, false, ShooterConstants.Pivot.ANGLE_LIMITS[1], 75.0, 1500.0),
-        SPEAKER_CALCULATE(true, true, true, null, 100.0, 1500.0, 1900.0),
-        MANUAL(false, false, false, null, 100.0, 1800.0)
+        FRONT_EJECT(false, false, ShooterConstants.Pivot.ANGLE_LIMITS[0], 25, 750),
+        INTAKE(false, true, ShooterConstants.Pivot.ANGLE_LIMITS[0], Double.NaN, Double.NaN),
+        AMP(false, true, ShooterConstants.Pivot.ANGLE_LIMITS[1], 10, 435),
+        SPEAKER(false, true, ShooterConstants.Pivot.ANGLE_LIMITS[1], 75, 1500),
+        SPEAKER_CALCULATE(true, true, Double.NaN, 100, 1500),
+        MANUAL(false, false, Double.NaN, 100, 1800)
         ;
 
         boolean calculateAngle;
         boolean autoEndShooting;
-        boolean spin;
-        Double positionAngle;
-        Double[] rpms;
-        Double allowedError;
+        /** Angle of the pivot in degrees, NaN if it is not fixed. */
+        double positionAngle;
+        /** Speed of the shooting wheels in RPM, NaN if they do not shoot. */
+        double rpm;
+        /** Allowed error of the shooting wheels in RPM. */
+        double allowedError;
 
         /**
          * Creates a new ShooterState.
          * @param calculateAngle
          * @param autoEndShooting
-         * @param spin
-         * @param angle
-         * @param allowedError
-         * @param RPMS Put lower RPM first and higher second.
+         * @param angle in degrees.
+         * @param allowedError in RPM.
+         * @param rpm of the shooting wheels.
+         * States that calculate the angle use the {@link ShotSolution} and only fall back to this RPM.
          */
-        private ShooterStates(boolean calculateAngle, boolean autoEndShooting, boolean spin,
-            Double angle, Double allowedError, Double... RPMS) {
+        private ShooterStates(boolean calculateAngle, boolean autoEndShooting,
+            double angle, double allowedError, double rpm) {
             this.calculateAngle = calculateAngle;
             this.autoEndShooting = autoEndShooting;
-            this.spin = spin;
             this.positionAngle = angle;
             this.allowedError = allowedError;
-            this.rpms = RPMS;
+            this.rpm = rpm;
         }
 
         /**
@@ -81,45 +78,21 @@ public final class Constants {
         }
 
         /**
-         * The RPMs for this state.
-         * @param invert inverts highRPM in [0] and [1].
-         * @return the RPMs.
+         * The RPM for this state, read from this loop's {@link ShotSolution} if the state calculates its angle.
+         * @return the RPM of both shooting wheels.
          */
-        public double[] getRPMs(boolean invert) {
-            double _rpms = this.rpms[0];
-
-            if (this.calculateAngle) {
-                Optional<DriverStation.Alliance> alliance = DriverStation.getAlliance();
-                if (alliance.isPresent()) {
-                    Translation3d point = Positions.SPEAKER_TARGETS.get(DriverStation.getAlliance().get());
-                    Pose2d botpose = SwerveSubsystem.getInstance().getPose();
-                    
-                    // Calculates horizontal distance to speaker.
-                    double dist = Math.sqrt(
-                        Math.pow(point.getX() - botpose.getX(), 2) +
-                        Math.pow(point.getY() - botpose.getY(), 2)
-                    );
+        public double getRPM() {
+            if (!this.calculateAngle) return this.rpm;
 
-                    if (dist <= 1.5) {
-                        _rpms = this.rpms[0];
-                    }
-                    else {
-                        _rpms = this.rpms[1];
-                    }
-                }
-                else {
-                    Telemetry.logMessage("DriverStation alliance is not present", LoggingTags.ERROR);
-                }
-            }
+            ShotSolution solution = ShotSolver.getInstance().getSolution();
+            if (solution.isValid()) return solution.getRPM();
 
-            return new double[]{
-                _rpms * (this.spin && !invert ? (double) 1 : 1),
-                _rpms * (this.spin && invert ? (double) 1 : 1)
-            };
+            Telemetry.logMessage("DriverStation alliance is not present", LoggingTags.ERROR);
+            return this.rpm;
         }
 
         /**
-         * The tolerance for this state's angle.
+         * The tolerance for this state's RPM.
          * @return the allowed error.
          */
         public double getAllowedError() {
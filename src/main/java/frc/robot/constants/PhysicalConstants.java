@@ -4,6 +4,7 @@
 
 package frc.robot.constants;
 
+import au.grapplerobotics.LaserCan;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.util.Units;
@@ -34,6 +35,8 @@ public final class PhysicalConstants {
         
         /** The loop time in seconds for publishing telemetry. */
         public static final double TELEMETRY_LOOP_TIME = 0.25;
+        /** The loop time in seconds for exporting {@link Metrics}. */
+        public static final double METRICS_LOOP_TIME = 0.5;
         
         /** Name of the CAN bus the swerve is connected to. */
         public static final String SWERVE_CAN_BUS = "swerve";
@@ -44,6 +47,55 @@ public final class PhysicalConstants {
         public static final double GYRO_OFFSET = 180;
     }
 
+    /**
+     * Constants for the CAN buses and the classes in {@code frc.robot.can}.
+     */
+    public static final class CANConstants {
+        /** Name of the roboRIO's built-in CAN bus. */
+        public static final String RIO_CAN_BUS = "rio";
+        /** The loop time in seconds for sampling bus statistics in {@link CANBusMonitor}. */
+        public static final double MONITOR_LOOP_TIME = 0.5;
+        /** Amount of samples averaged for the utilization trend. */
+        public static final int UTILIZATION_AVERAGE_TAPS = 20;
+        /** Bus utilization (0.0 to 1.0) above which a warning is logged. */
+        public static final double UTILIZATION_WARNING = 0.8;
+
+        /** Nominal bit rate of both CAN buses in bits per second. */
+        public static final double BUS_BIT_RATE = 1_000_000;
+        /** Approximate size in bits of an extended CAN frame with 8 data bytes, including bit stuffing. */
+        public static final double FRAME_BITS = 140;
+        /**
+         * Fraction (0.0 to 1.0) of each bus that status frames are allowed to use in {@link StatusFrameAllocator}.
+         * The rest is left for control frames and configuration.
+         */
+        public static final double STATUS_FRAME_LOAD_TARGET = 0.6;
+        /** Smallest period in milliseconds given to frames that are not needed (the first prime above 10 seconds). */
+        public static final int UNUSED_FRAME_PERIOD = 10007;
+        /** Largest period in milliseconds a REV status frame can be set to. */
+        public static final int REV_MAX_FRAME_PERIOD = 65535;
+        /** Largest period in milliseconds a Phoenix 6 status signal can be set to (4 Hz). */
+        public static final int PHOENIX_MAX_SIGNAL_PERIOD = 250;
+        /** Time in seconds to wait for a device to confirm a configuration at startup. */
+        public static final double CONFIGURATION_TIMEOUT = 0.05;
+        /** Amount of worker threads used by the {@link StartupOrchestrator}. */
+        public static final int CONFIGURATION_THREADS = 4;
+        /** Amount of times a configuration step is tried before the device is reported as failed. */
+        public static final int CONFIGURATION_ATTEMPTS = 8;
+        /** Time in seconds between attempts, devices can take a few seconds to boot after the roboRIO. */
+        public static final double CONFIGURATION_RETRY_DELAY = 0.5;
+
+        /** The loop time in seconds for checking the next devices in {@link DeviceHealthMonitor}. */
+        public static final double HEALTH_LOOP_TIME = 0.1;
+        /** Largest amount of devices checked per loop, which bounds the CAN requests it adds. */
+        public static final int HEALTH_DEVICES_PER_LOOP = 1;
+        /** Largest period in milliseconds of the fault, temperature and version frames read by {@link DeviceHealthMonitor}. */
+        public static final int HEALTH_SIGNAL_PERIOD = 250;
+        /** Time in seconds without new data after which a device is reported as not publishing. */
+        public static final double HEALTH_STALE_TIME = 1;
+        /** Temperature in degrees Celsius above which a device is reported as hot. */
+        public static final double HEALTH_TEMPERATURE_WARNING = 80;
+    }
+
     /**
      * Constants used for the {@link IntakeSubsystem}.
      */
@@ -55,10 +107,34 @@ public final class PhysicalConstants {
 
         /** Speed at which to run the intake motors. */
         public static final double INTAKE_SPEED = 0.25;
-        /** PID Proportional to use when moving the intake up. */
-        public static final double PIVOT_PID_P_UP = 0.11;
-        /** PID Proportional to use when moving the intake down. */
-        public static final double PIVOT_PID_P_DOWN = 0.075;
+
+        /** Ratio between motor rotations and pivot rotations. */
+        public static final double PIVOT_GEARING = 80;
+        /** Free speed of the pivot in degrees per second, two Vortexes through the gearing. */
+        public static final double PIVOT_FREE_SPEED = 6784.0 / 60 * 360 / PIVOT_GEARING;
+        /**
+         * Smart Motion configuration of the pivot leader, in degrees of the pivot.
+         * The Spark runs it on its own encoder, which is seeded from the through bore encoder.
+         * Smart Motion closes a velocity loop on the profile, so the gains act on degrees per second.
+         */
+        public static final class PivotSmartMotion {
+            /** Duty cycle per degree per second of velocity error. */
+            public static final double kP = 0.0002;
+            public static final double kI = 0;
+            public static final double kD = 0;
+            /** Duty cycle per degree per second of the profile's velocity. */
+            public static final double kFF = 1 / PIVOT_FREE_SPEED;
+            /** Volts added to hold the intake horizontal (at 0 degrees), scaled by the cosine of the angle. */
+            public static final double kG = 0.35;
+            /** Cruise velocity in degrees per second. */
+            public static final double MAX_VELOCITY = 360;
+            /** Acceleration in degrees per second squared. */
+            public static final double MAX_ACCELERATION = 1200;
+            /** Error in degrees within which the Spark stops correcting. */
+            public static final double ALLOWED_ERROR = 1;
+            /** Disagreement in degrees between the leader's encoder and the through bore encoder before reseeding. */
+            public static final double SEED_TOLERANCE = 2;
+        }
     }
 
     /**
@@ -76,6 +152,59 @@ public final class PhysicalConstants {
          * the furthest point from the laser in the sterilizer in millimeters.
          */
         public static final double NOTE_DISTANCE_LASER = 200;
+
+        // Laser ranging, applied at startup instead of from the GrappleHook app.
+        /** Short range is accurate up to 1.3 m and measures faster than long range, the note is within 0.4 m. */
+        public static final LaserCan.RangingMode LASER_RANGING_MODE = LaserCan.RangingMode.SHORT;
+        /** Time each measurement takes, the shortest budget gives the fastest note edges. */
+        public static final LaserCan.TimingBudget LASER_TIMING_BUDGET = LaserCan.TimingBudget.TIMING_BUDGET_20MS;
+        /** Center of the region of interest on the 16x16 sensor grid, the middle of the sensor. */
+        public static final int LASER_ROI_X = 8;
+        public static final int LASER_ROI_Y = 8;
+        /** Size of the region of interest, narrowed so the sterilizer walls are not measured. */
+        public static final int LASER_ROI_WIDTH = 8;
+        public static final int LASER_ROI_HEIGHT = 8;
+
+        /** Period of the note indexer in seconds, faster than the main loop so the motors stop on the edges. */
+        public static final double INDEXER_PERIOD = 0.005;
+        /** Time in seconds a laser must agree before an edge is accepted.
+         * Longer than one {@link SterilizerConstants#LASER_TIMING_BUDGET} so a single bad measurement is not an edge.
+         * The front laser's rising edge, which stops the intake and the sterilizer, is not debounced.
+         */
+        public static final double LASER_DEBOUNCE_TIME = 0.025;
+    }
+
+    /**
+     * Constants for the note detection fused from the sterilizer lasers and the roller motors.
+     * @see frc.robot.utilities.RollerLoadDetector
+     */
+    public static final class NoteDetectionConstants {
+        /** Time in seconds the current is ignored after a speed change, while the motors accelerate. */
+        public static final double INRUSH_BLANKING_TIME = 0.25;
+        /** Time constant in seconds of the current filter. */
+        public static final double CURRENT_FILTER_TIME_CONSTANT = 0.04;
+        /** Time in seconds the load signature must hold before the note counts as gripped. */
+        public static final double LOAD_DEBOUNCE_TIME = 0.04;
+        /** Slowest speed that grips a note hard enough to be measured. Between 0 and 1.0. */
+        public static final double MIN_SPEED = 0.05;
+
+        // Absolute thresholds, above the free running currents at every roller speed. Estimates, to be measured.
+        /** Filtered sum in amps of the intake motor currents above which a note is gripped. */
+        public static final double INTAKE_LOAD_CURRENT = 20;
+        /** Fraction of the free running intake velocity lost with a gripped note. */
+        public static final double INTAKE_VELOCITY_DROP = 0.1;
+        /** Filtered feeder current in amps above which a note is gripped. */
+        public static final double FEEDER_LOAD_CURRENT = 12;
+        /** Fraction of the free running feeder velocity lost with a gripped note. */
+        public static final double FEEDER_VELOCITY_DROP = 0.1;
+
+        // Weights of each source in the note confidence, only counted while the source is valid or active.
+        /** Weight of each valid laser. */
+        public static final double LASER_WEIGHT = 0.4;
+        public static final double FEEDER_WEIGHT = 0.2;
+        public static final double INTAKE_WEIGHT = 0.2;
+        /** Confidence above which the robot holds a note. */
+        public static final double CONFIDENCE_THRESHOLD = 0.5;
     }
 
     /**
@@ -97,20 +226,46 @@ public final class PhysicalConstants {
         public static final class Shooting {
             /** PID Proportional for the shooting motors. */
             public static final double kP_SHOOTING = 0.001;
-            /** Feed forward for the shooting motors. */
-            public static final double kFF_SHOOTING = 0.000265;
+            /** Voltage the shooting motors are compensated to, so the feedforward does not depend on the battery. */
+            public static final double NOMINAL_VOLTAGE = 11;
+
+            /**
+             * Feedforward of each shooting wheel from the SysId routine in {@link frc.robot.shooter.ShooterSubsystem}.
+             * kS in volts, kV in volts per rps and kA in volts per rps/s.
+             * Until characterized, kS is 0 so the feedforward matches the previous hand-tuned kFF of 0.000265 at the
+             * nominal voltage. kA is only used by the simulation, the goals are constant velocities.
+             */
+            public static final class Left {
+                public static final double kS = 0;
+                public static final double kV = 0.175;
+                public static final double kA = 0.02;
+            }
+            /** @see Left */
+            public static final class Right {
+                public static final double kS = 0;
+                public static final double kV = 0.175;
+                public static final double kA = 0.02;
+            }
         }
 
         // Pivot.
-        /** Motion magic configurations for pivot motors. */
+        /**
+         * Motion magic configurations for pivot motors, in pivot rotations.
+         * Characterize kS, kV, kA and kG with the pivot SysId routine in {@link ShooterSubsystem}.
+         */
         public static final class slot0Configs {
             /** Volts added to overcome friction. */
             public static final double kS = 0.12;
-            /** Volts added for a target velocity. */
-            public static final double kV = 0.06; // Target velocity of 100 rps at 0.12 kV.
-            public static final double kP = 1.2;
+            /** Volts added for a target velocity in rps. */
+            public static final double kV = 12.8;
+            /** Volts added for a target acceleration in rps/s. */
+            public static final double kA = 0.3;
+            /** Volts added to hold the pivot horizontal, scaled by the cosine of the angle. */
+            public static final double kG = 0.3;
+            /** Volts per rotation of error. */
+            public static final double kP = 256;
             public static final double kI = 0;
-            public static final double kD = 0.1;
+            public static final double kD = 21.3;
         }
 
         /** Motor onfigurations for moving the pivot. */
@@ -120,6 +275,18 @@ public final class PhysicalConstants {
             public static final double[] ANGLE_LIMITS = new double[]{35, 61.5};
             /** Allowed pivot error for the pivot rotation in degrees. */
             public static final double ALLOWED_ERROR = 0.5;
+            /** Change in degrees of a tracked angle under which the pivot is not sent a new position. */
+            public static final double TRACKING_DEADBAND = 0.25;
+            /** Volts added to the right (follower) motor per degree the left (leader) side is above it. */
+            public static final double SKEW_kP = 0.25;
+            /** Largest correction in volts of the follower while following a goal. */
+            public static final double SKEW_MAX_CORRECTION = 1.5;
+            /** Duty cycle added to the follower per degree of skew while driven by speed. */
+            public static final double SKEW_kP_DUTY = 0.02;
+            /** Largest correction in duty cycle of the follower while driven by speed. */
+            public static final double SKEW_MAX_DUTY_CORRECTION = 0.1;
+            /** Skew in degrees between both sides above which a warning is logged. */
+            public static final double SKEW_WARNING = 1;
             /** PPID Proportional for the pivot motors. */
             public static final double kP_PIVOT = 0.08;
             // Constraints for TrapezoidProfile for the pivot motors.
@@ -127,18 +294,157 @@ public final class PhysicalConstants {
             public static final double MAX_ACCEL = 40;
         }
 
-        /** Cruise velocity in rps. */
-        public static final double CRUISE_SPEED = 80;
-        /** Acceleration in rps/s. */
-        public static final double CRUISE_ACCELERATION = 80;
-        /** Jerk in rps/s^2 (0.1 seconds). */
-        public static final double MOTION_MAGIC_JERK = 1600;
+        /** Configuration of the {@link frc.robot.shooter.FlywheelReadinessDetector}. */
+        public static final class Readiness {
+            /** Period in seconds the velocities are sampled at, the robot loop. */
+            public static final double LOOP_TIME = 0.02;
+            /** Time constant in seconds of the velocity filter. */
+            public static final double VELOCITY_FILTER_TIME_CONSTANT = 0.04;
+            /** Largest filtered acceleration in RPM per second at which a wheel is considered stable. */
+            public static final double MAX_ACCELERATION = 1000;
+            /** Time in seconds both wheels must stay stable before they are ready. */
+            public static final double DWELL_TIME = 0.06;
+            /** Velocity measurement period in milliseconds of the wheel encoders, the default is 32. */
+            public static final int ENCODER_MEASUREMENT_PERIOD = 16;
+            /** Amount of samples averaged by the wheel encoders, the default is 8. */
+            public static final int ENCODER_AVERAGE_DEPTH = 2;
+        }
+
+        /** Timing of the phases of the {@link frc.robot.shooter.ShootCommand}, in seconds. */
+        public static final class ShotTiming {
+            /** Longest time to wait for the wheels to reach speed before feeding anyway. */
+            public static final double SPIN_UP_TIMEOUT = 2;
+            /** Longest time to feed before the note is assumed to be gone. */
+            public static final double FEED_TIMEOUT = 1;
+            /** Time to keep feeding after the note leaves the front laser so it clears the wheels. */
+            public static final double EXIT_CONFIRM_TIME = 0.25;
+        }
+
+        /** Configuration of the {@link frc.robot.shooter.ShotMap}. */
+        public static final class ShotMap {
+            /** CSV file in the deploy directory with {@code distance,angle,rpm} lines. */
+            public static final String FILE = "shotmap.csv";
+            /**
+             * Entries {distance in meters, angle in degrees, RPM} used if the file cannot be read.
+             * Uncalibrated, seeded from the previous atan model like the file,
+             * at 1500 RPM up to 1.5 m and 1900 RPM beyond.
+             */
+            public static final double[][] FALLBACK = new double[][]{
+                {1.0, 67.4, 1500},
+                {1.49, 58.2, 1500},
+                {1.5, 58.0, 1900},
+                {2.0, 50.2, 1900},
+                {3.0, 38.7, 1900},
+                {4.0, 31.0, 1900},
+                {5.0, 25.6, 1900}
+            };
+        }
+
+        /** Configuration of the {@link frc.robot.shooter.ShotSolver}. */
+        public static final class ShotSolver {
+            /** Largest amount of refinements of the virtual target per solve. */
+            public static final int ITERATIONS = 4;
+            /** Change in time of flight in seconds under which the virtual target is considered converged. */
+            public static final double TIME_OF_FLIGHT_TOLERANCE = 0.005;
+            // Estimates that have not been measured on the robot yet.
+            /** Diameter of the shooting wheels in meters, unverified. */
+            public static final double WHEEL_DIAMETER = Units.inchesToMeters(4);
+            /** Ratio between the speed of the note and the surface speed of the shooting wheels, unverified. */
+            public static final double EXIT_SPEED_RATIO = 0.5;
+            /**
+             * Degrees added to the direction of the target to get the robot heading, unverified.
+             * The shooter is at the back of the robot, see {@link PhysicalConstants}.
+             */
+            public static final double SHOOTER_HEADING_OFFSET = 180;
+            /**
+             * Whether the solved heading overrides the rotation target of PathPlanner paths while aiming.
+             * Off until the estimates above are measured, a wrong heading turns the robot the wrong way mid-path.
+             */
+            public static final boolean ROTATION_OVERRIDE_ENABLED = false;
+        }
+
+        /** Cruise velocity of the pivot in rps, tunable from Shuffleboard. */
+        public static final double CRUISE_SPEED = 0.375;
+        /** Acceleration of the pivot in rps/s, tunable from Shuffleboard. */
+        public static final double CRUISE_ACCELERATION = 0.375;
+        /** Jerk of the pivot in rps/s^2 (0.05 seconds to full acceleration), tunable from Shuffleboard. */
+        public static final double MOTION_MAGIC_JERK = 7.5;
+        /** Voltage ramp in volts per second of the pivot quasistatic SysId test. */
+        public static final double PIVOT_SYSID_RAMP_RATE = 0.25;
+        /** Voltage of the pivot dynamic SysId test, low because the pivot only travels a few degrees. */
+        public static final double PIVOT_SYSID_STEP_VOLTAGE = 1.5;
     }
 
     /** Constants for the {@link ElevatorSubsystem}. */ 
     public static final class ElevatorConstants {
         public static final int LEFT_MOTOR_ID = 24;
         public static final int RIGHT_MOTOR_ID = 25;
+
+        /** Match time in seconds left in teleop when endgame starts. */
+        public static final double ENDGAME_TIME = 20;
+        /** Time in seconds the status frames stay fast after the elevator was last moved. */
+        public static final double ACTIVE_HOLD_TIME = 1;
+    }
+
+    /**
+     * Constants of the physics models used when the code runs in simulation.
+     * Masses and lengths are estimates, they only need to be close enough to exercise the commands.
+     */
+    public static final class SimulationConstants {
+        /** Shooter pivot, driven by both Talons, 0 is horizontal. */
+        public static final class ShooterPivot {
+            /** Length of the pivot from its shaft to the shooting wheels in meters. */
+            public static final double LENGTH = 0.45;
+            /** Mass of the pivot in kilograms. */
+            public static final double MASS = 6;
+        }
+
+        /** Intake pivot, driven by both Vortexes, 0 is fully extended. */
+        public static final class IntakePivot {
+            /** Length of the intake from its pivot in meters. */
+            public static final double LENGTH = 0.35;
+            /** Mass of the intake in kilograms. */
+            public static final double MASS = 3;
+        }
+
+        /** Climbing elevator, driven by both NEOs. */
+        public static final class Elevator {
+            /** Ratio between motor rotations and drum rotations. */
+            public static final double GEARING = 20;
+            /** Radius of the drum in meters. */
+            public static final double DRUM_RADIUS = Units.inchesToMeters(1);
+            /** Mass of the carriage in kilograms. */
+            public static final double CARRIAGE_MASS = 5;
+            /** Travel of the elevator in meters. */
+            public static final double MAX_HEIGHT = 0.6;
+        }
+
+        /**
+         * Path of a note through the robot for {@link frc.robot.simulation.NoteSimulation}.
+         * Positions are in meters along the path of the note's center, 0 is at the intake rollers.
+         */
+        public static final class Note {
+            /** Time in seconds the intake has to run on the floor before it touches a note. */
+            public static final double PICKUP_TIME = 0.3;
+            /** Position where the sterilizer starts moving the note instead of the intake. */
+            public static final double STERILIZER_POSITION = 0.15;
+            /** Position of the back laser. */
+            public static final double BACK_LASER_POSITION = 0.35;
+            /** Position of the front laser. */
+            public static final double FRONT_LASER_POSITION = 0.5;
+            /** Position where the note leaves through the shooting wheels. */
+            public static final double SHOOTER_POSITION = 0.7;
+            /** Length of the note along its path. */
+            public static final double LENGTH = 0.36;
+            /** Speed of the note in meters per second when the intake runs at full speed. */
+            public static final double INTAKE_SURFACE_SPEED = 4;
+            /** Speed of the note in meters per second when the sterilizer runs at full speed. */
+            public static final double STERILIZER_SURFACE_SPEED = 3;
+            /** Distance in millimeters reported by a laser that sees the note. */
+            public static final int NOTE_DISTANCE = 50;
+            /** Distance in millimeters reported by a laser that does not see a note. */
+            public static final int EMPTY_DISTANCE = 400;
+        }
     }
 
     /** Constants for limelight-related data. */
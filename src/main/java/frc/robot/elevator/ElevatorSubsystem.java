@@ -8,9 +8,22 @@ import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
+import frc.robot.can.StatusFrameAllocator.SparkDevice;
 import frc.robot.constants.PhysicalConstants.ElevatorConstants;
-import frc.robot.constants.PrimeNumbers;
+import frc.robot.constants.PhysicalConstants.SimulationConstants;
+import frc.robot.utilities.Metrics;
 
 /**
  * A subsystem used to control the climbing mechanism on the robot.
@@ -34,6 +47,25 @@ public class ElevatorSubsystem extends SubsystemBase {
 
     private CANSparkMax rightClimbMotor = new CANSparkMax(ElevatorConstants.RIGHT_MOTOR_ID, MotorType.kBrushless);
     private CANSparkMax leftClimbMotor = new CANSparkMax(ElevatorConstants.LEFT_MOTOR_ID, MotorType.kBrushless);
+    /** Speeds up the leader's status 0 so that the follower keeps up while climbing. */
+    private StatusFrameAllocator.Boost climbBoost;
+    private double lastMoved = Double.NEGATIVE_INFINITY;
+
+    /** Last requested speed, used by the simulation. */
+    private double speed = 0;
+    /** Model of the elevator, null unless simulated. */
+    private ElevatorSim simulation = RobotBase.isSimulation()
+        ? new ElevatorSim(
+            DCMotor.getNEO(2),
+            SimulationConstants.Elevator.GEARING,
+            SimulationConstants.Elevator.CARRIAGE_MASS,
+            SimulationConstants.Elevator.DRUM_RADIUS,
+            0,
+            SimulationConstants.Elevator.MAX_HEIGHT,
+            true,
+            0)
+        : null;
+    private Metrics.Gauge simulatedHeight = RobotBase.isSimulation() ? Metrics.gauge("Simulation/Elevator/Height") : null;
 
     /**
      * Creates a new ElevatorSubsystem.
@@ -41,19 +73,35 @@ public class ElevatorSubsystem extends SubsystemBase {
     public ElevatorSubsystem() {
         super("ElevatorSubsystem");
 
-        leftClimbMotor.follow(rightClimbMotor, true);
+        StartupOrchestrator.getInstance().configure("Elevator left",
+            StartupOrchestrator.rev(() -> leftClimbMotor.follow(rightClimbMotor, true)));
 
         setStatusFrames();
+        registerHealthChecks();
     }
 
     @Override
-    public void periodic() {}
+    public void periodic() {
+        updateClimbBoost();
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        this.simulation.setInputVoltage(this.speed * RobotController.getBatteryVoltage());
+        this.simulation.update(TimedRobot.kDefaultPeriod);
+        this.simulatedHeight.set(this.simulation.getPositionMeters());
+    }
     
     /**
      * Sets the speed of the motors to move the climb mechanism.
      * @param speed from -1.0 to 1.0. Positive speeds are up.
      */
     public void setSpeed(double speed) {
+        if (speed != 0) {
+            this.lastMoved = Timer.getFPGATimestamp();
+            updateClimbBoost();
+        }
+        this.speed = speed;
         rightClimbMotor.set(speed);
     }
     
@@ -65,25 +113,48 @@ public class ElevatorSubsystem extends SubsystemBase {
     }
 
     /**
-     * Limits the publishing of CAN messages to the bus.
+     * Declares the CAN messages this subsystem needs to the {@link StatusFrameAllocator}.
      */
     private void setStatusFrames() {
-        // leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, PrimeNumbers.getNextPrimeNumber());
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // leftClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-        
-        // rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, PrimeNumbers.getNextPrimeNumber());
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // rightClimbMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
+        StatusFrameAllocator allocator = StatusFrameAllocator.getInstance();
+
+        // The elevator sits at minimum rates until it is used.
+        // The follower reads the applied output of its leader from status 0, so the leader gets boosted.
+        SparkDevice right = allocator.spark("Elevator right", rightClimbMotor)
+            .need(PeriodicFrame.kStatus0, 250)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus0, 10);
+        allocator.spark("Elevator left", leftClimbMotor)
+            .need(PeriodicFrame.kStatus0, 250)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus0, 10, 100);
+
+        this.climbBoost = right.boost(PeriodicFrame.kStatus0, 10);
+    }
+
+    /**
+     * Boosts the leader's status frames during endgame and while the elevator is being moved.
+     */
+    private void updateClimbBoost() {
+        this.climbBoost.set(isEndgame()
+            || Timer.getFPGATimestamp() - this.lastMoved < ElevatorConstants.ACTIVE_HOLD_TIME);
+    }
+
+    /**
+     * Checks if the robot is in the endgame of a match.
+     * @return whether it is in teleop with less than {@link ElevatorConstants#ENDGAME_TIME} left.
+     * @apiNote Always true in teleop when the match time is unknown.
+     */
+    private boolean isEndgame() {
+        if (!DriverStation.isTeleopEnabled()) return false;
+        double matchTime = DriverStation.getMatchTime();
+        return matchTime < 0 || matchTime <= ElevatorConstants.ENDGAME_TIME;
+    }
+
+    /**
+     * Adds the devices of this subsystem to the {@link DeviceHealthMonitor}.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor monitor = DeviceHealthMonitor.getInstance();
+        monitor.spark("Elevator right", rightClimbMotor);
+        monitor.spark("Elevator left", leftClimbMotor);
     }
 }
@@ -6,16 +6,35 @@ package frc.robot.intake;
 
 import com.revrobotics.CANSparkFlex;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkAbsoluteEncoder;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
 import frc.robot.constants.PhysicalConstants.IntakeConstants;
-import frc.robot.constants.PrimeNumbers;
+import frc.robot.constants.PhysicalConstants.NoteDetectionConstants;
+import frc.robot.constants.PhysicalConstants.SimulationConstants;
 import frc.robot.constants.Constants.IntakeStates;
+import frc.robot.simulation.NoteSimulation;
+import frc.robot.utilities.RollerLoadDetector;
 
 /**
  * A subsystem that controls the intake.
@@ -62,40 +81,119 @@ public class IntakeSubsystem extends SubsystemBase {
 
     /** Leader for the intake pivot. */
     private CANSparkFlex leftPivotMotor = new CANSparkFlex(IntakeConstants.LEFT_MOTOR_ID, MotorType.kBrushless);
+    private SparkPIDController pivotPID = leftPivotMotor.getPIDController();
+    /** Motor encoder of the leader in degrees of the pivot, seeded from the through bore encoder. */
+    private RelativeEncoder pivotMotorEncoder = leftPivotMotor.getEncoder();
+    /** Goal of the pivot in degrees, NaN when it is driven by speed. */
+    private double pivotGoal = Double.NaN;
     /** Follower for the intake pivot. */
     private CANSparkFlex rightPivotMotor = new CANSparkFlex(IntakeConstants.RIGHT_MOTOR_ID, MotorType.kBrushless);
 
     /** Vortex - leader for intaking. */
     private CANSparkFlex topIntakeMotor = new CANSparkFlex(IntakeConstants.TOP_MOTOR_ID, MotorType.kBrushless);
+    private RelativeEncoder topIntakeEncoder = topIntakeMotor.getEncoder();
     /** Neo - follower for intaking. */
     private CANSparkMax bottomIntakeMotor = new CANSparkMax(IntakeConstants.BOTTOM_MOTOR_ID, MotorType.kBrushless);
     /** Through bore encoder in absolute mode. */
     private SparkAbsoluteEncoder pivotEncoder = bottomIntakeMotor.getAbsoluteEncoder();
 
+    // Last requested speeds, used by the simulation.
+    private double pivotSpeed = 0;
+    private double intakeSpeed = 0;
+    /** Detects a gripped note from both intake motors, not fed in simulation where there is no current. */
+    private RollerLoadDetector intakeLoad = new RollerLoadDetector("Intake", TimedRobot.kDefaultPeriod,
+        NoteDetectionConstants.INTAKE_LOAD_CURRENT, NoteDetectionConstants.INTAKE_VELOCITY_DROP);
+    /** Model of the pivot, null unless simulated. */
+    private SingleJointedArmSim pivotSimulation = RobotBase.isSimulation()
+        ? new SingleJointedArmSim(
+            DCMotor.getNeoVortex(2),
+            IntakeConstants.PIVOT_GEARING,
+            SingleJointedArmSim.estimateMOI(SimulationConstants.IntakePivot.LENGTH, SimulationConstants.IntakePivot.MASS),
+            SimulationConstants.IntakePivot.LENGTH,
+            Units.degreesToRadians(IntakeStates.INTAKING.getAngle()),
+            Units.degreesToRadians(IntakeStates.IDLE.getAngle()),
+            true,
+            Units.degreesToRadians(IntakeStates.IDLE.getAngle()))
+        : null;
+    /** Emulates Smart Motion, which REVLib does not simulate, with the same velocity loop as the Spark. */
+    private TrapezoidProfile simulatedProfile = new TrapezoidProfile(new TrapezoidProfile.Constraints(
+        IntakeConstants.PivotSmartMotion.MAX_VELOCITY, IntakeConstants.PivotSmartMotion.MAX_ACCELERATION));
+    private TrapezoidProfile.State simulatedSetpoint = new TrapezoidProfile.State();
+
     public IntakeSubsystem() {
         super("IntakeSubsystem");
 
-        leftPivotMotor.setInverted(false);
-        rightPivotMotor.follow(leftPivotMotor, true);
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.configure("Intake left pivot",
+            StartupOrchestrator.rev(leftPivotMotor, () -> leftPivotMotor.setInverted(false)),
+            // Positions in degrees and velocities in degrees per second of the pivot.
+            StartupOrchestrator.rev(() -> pivotMotorEncoder.setPositionConversionFactor(360 / IntakeConstants.PIVOT_GEARING)),
+            StartupOrchestrator.rev(() -> pivotMotorEncoder.setVelocityConversionFactor(360 / IntakeConstants.PIVOT_GEARING / 60)),
+            StartupOrchestrator.rev(() -> pivotPID.setP(IntakeConstants.PivotSmartMotion.kP)),
+            StartupOrchestrator.rev(() -> pivotPID.setI(IntakeConstants.PivotSmartMotion.kI)),
+            StartupOrchestrator.rev(() -> pivotPID.setD(IntakeConstants.PivotSmartMotion.kD)),
+            StartupOrchestrator.rev(() -> pivotPID.setFF(IntakeConstants.PivotSmartMotion.kFF)),
+            StartupOrchestrator.rev(() -> pivotPID.setOutputRange(-1, 1)),
+            StartupOrchestrator.rev(() -> pivotPID.setSmartMotionMaxVelocity(IntakeConstants.PivotSmartMotion.MAX_VELOCITY, 0)),
+            StartupOrchestrator.rev(() -> pivotPID.setSmartMotionMinOutputVelocity(0, 0)),
+            StartupOrchestrator.rev(() -> pivotPID.setSmartMotionMaxAccel(IntakeConstants.PivotSmartMotion.MAX_ACCELERATION, 0)),
+            StartupOrchestrator.rev(() -> pivotPID.setSmartMotionAllowedClosedLoopError(
+                IntakeConstants.PivotSmartMotion.ALLOWED_ERROR, 0)));
+        orchestrator.configure("Intake right pivot",
+            StartupOrchestrator.rev(() -> rightPivotMotor.follow(leftPivotMotor, true)));
 
-        topIntakeMotor.setInverted(true);
-        bottomIntakeMotor.follow(topIntakeMotor, true);
-        
-        // Inverted so that positive angles are up
-        pivotEncoder.setInverted(true);
+        orchestrator.configure("Intake top",
+            StartupOrchestrator.rev(topIntakeMotor, () -> topIntakeMotor.setInverted(true)));
+        orchestrator.configure("Intake bottom",
+            StartupOrchestrator.rev(() -> bottomIntakeMotor.follow(topIntakeMotor, true)),
+            // Inverted so that positive angles are up
+            StartupOrchestrator.rev(() -> pivotEncoder.setInverted(true)));
 
         setStatusFrames();
+        registerHealthChecks();
+    }
+
+    @Override
+    public void periodic() {
+        if (this.pivotSimulation == null) {
+            // The intake only grips a note on its way in, the fastest sample is still the free running one.
+            this.intakeLoad.update(topIntakeMotor.getOutputCurrent() + bottomIntakeMotor.getOutputCurrent(),
+                topIntakeEncoder.getVelocity(), true);
+        }
+
+        // Gravity depends on the angle, so the feedforward is updated every loop.
+        if (!Double.isNaN(this.pivotGoal)) {
+            setPivotReference();
+        }
     }
 
     @Override
-    public void periodic() {}
+    public void simulationPeriodic() {
+        double volts = this.pivotSpeed * RobotController.getBatteryVoltage();
+        if (!Double.isNaN(this.pivotGoal)) {
+            this.simulatedSetpoint = this.simulatedProfile.calculate(TimedRobot.kDefaultPeriod,
+                this.simulatedSetpoint, new TrapezoidProfile.State(this.pivotGoal, 0));
+            double velocity = Units.radiansToDegrees(this.pivotSimulation.getVelocityRadPerSec());
+            double output = IntakeConstants.PivotSmartMotion.kFF * this.simulatedSetpoint.velocity
+                + IntakeConstants.PivotSmartMotion.kP * (this.simulatedSetpoint.velocity - velocity);
+            volts = MathUtil.clamp(output, -1, 1) * RobotController.getBatteryVoltage() + getGravityFeedforward();
+        }
+        this.pivotSimulation.setInputVoltage(volts);
+        this.pivotSimulation.update(TimedRobot.kDefaultPeriod);
+
+        NoteSimulation.getInstance().setIntake(this.intakeSpeed, getPivotPosition());
+    }
 
     /**
      * Sets the speeds of the top and bottom intaking motors.
      * @param speed of the intake motors between -1.0 and 1.0. Positive speeds move towards the sterilizer.
      */
     public void setIntakeSpeed(double speed) {
+        this.intakeSpeed = speed;
         topIntakeMotor.set(speed);
+        if (this.pivotSimulation == null) {
+            this.intakeLoad.setSpeed(speed);
+        }
     }
 
     /**
@@ -105,6 +203,14 @@ public class IntakeSubsystem extends SubsystemBase {
         setIntakeSpeed(0);
     }
 
+    /**
+     * Gets the detector of a note gripped by the intake rollers.
+     * @return the detector, never active in simulation.
+     */
+    public RollerLoadDetector getIntakeLoad() {
+        return this.intakeLoad;
+    }
+
     /**
      * Set pivot motors to a specific speed.
      * @param speed between -1.0 and 1.0. Positive speeds are up.
@@ -120,6 +226,8 @@ public class IntakeSubsystem extends SubsystemBase {
                     ? 0 : speed;
         }
 
+        this.pivotGoal = Double.NaN;
+        this.pivotSpeed = speed;
         leftPivotMotor.set(speed);
     }
 
@@ -139,12 +247,60 @@ public class IntakeSubsystem extends SubsystemBase {
         setPivotSpeed(0);
     }
 
+    /**
+     * Moves the pivot to a position with Smart Motion on the leader, holding it against gravity.
+     * @param position of the intake in degrees.
+     * @apiNote The position is clamped between {@link IntakeStates#INTAKING} and {@link IntakeStates#IDLE}.
+     * @see {@link IntakeSubsystem#seedPivotEncoder()} to correct the leader's encoder first.
+     */
+    public void pivotGoToPosition(double position) {
+        this.pivotGoal = MathUtil.clamp(position, IntakeStates.INTAKING.getAngle(), IntakeStates.IDLE.getAngle());
+        if (this.pivotSimulation != null) {
+            this.simulatedSetpoint = new TrapezoidProfile.State(getPivotPosition(),
+                Units.radiansToDegrees(this.pivotSimulation.getVelocityRadPerSec()));
+        }
+        setPivotReference();
+    }
+
+    /**
+     * Sets the leader's encoder to the position of the through bore encoder if they disagree,
+     * which also seeds it on the first move after boot.
+     * @return the error of the Spark, {@link REVLibError#kOk} if the encoders already agree.
+     * @apiNote Seed while the pivot is still, the through bore encoder is read over CAN.
+     * @see {@link IntakeConstants.PivotSmartMotion#SEED_TOLERANCE}
+     */
+    public REVLibError seedPivotEncoder() {
+        double position = getPivotPosition();
+        if (Math.abs(this.pivotMotorEncoder.getPosition() - position) <= IntakeConstants.PivotSmartMotion.SEED_TOLERANCE) {
+            return REVLibError.kOk;
+        }
+        return this.pivotMotorEncoder.setPosition(position);
+    }
+
+    /**
+     * Sends the goal and the current gravity feedforward to the leader.
+     */
+    private void setPivotReference() {
+        this.pivotPID.setReference(this.pivotGoal, ControlType.kSmartMotion, 0,
+            getGravityFeedforward(), ArbFFUnits.kVoltage);
+    }
+
+    /**
+     * Calculates the voltage that holds the intake at its current angle.
+     * @return the feedforward in volts.
+     */
+    private double getGravityFeedforward() {
+        return IntakeConstants.PivotSmartMotion.kG * Math.cos(Units.degreesToRadians(getPivotPosition()));
+    }
+
     /**
      * Gets the absolute position of the through bore encoder.
      * @return position of the intake in degrees.
      * @apiNote 0 is at the hard stop when fully extended.
      */
     public double getPivotPosition() {
+        if (this.pivotSimulation != null) return Units.radiansToDegrees(this.pivotSimulation.getAngleRads());
+
         double position = Units.rotationsToDegrees(this.pivotEncoder.getPosition());
         // Because it's an absolute encoder, make sure it isn't returning values like 359
         if (position > 350) position = 0;
@@ -168,43 +324,42 @@ public class IntakeSubsystem extends SubsystemBase {
     }
 
     /**
-     * Limits the publishing of CAN messages to the bus.
+     * Declares the CAN messages this subsystem needs to the {@link StatusFrameAllocator}.
      */
     private void setStatusFrames() {
-        // leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // leftPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-
-        // rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // rightPivotMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-
-        // topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        // topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        // topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // topIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-
-        // bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        // bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, 20);
-        // bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // bottomIntakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
+        StatusFrameAllocator allocator = StatusFrameAllocator.getInstance();
+
+        // Followers read the applied output of their leader from status 0.
+        // The leader's position is compared to the through bore encoder before seeding it.
+        allocator.spark("Intake left pivot", leftPivotMotor)
+            .need(PeriodicFrame.kStatus0, 10)
+            .need(PeriodicFrame.kStatus2, 20)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus2, 200);
+        allocator.spark("Intake right pivot", rightPivotMotor)
+            .need(PeriodicFrame.kStatus0, 10, 100);
+
+        // Velocity and current for the note detection.
+        allocator.spark("Intake top", topIntakeMotor)
+            .need(PeriodicFrame.kStatus0, 10)
+            .need(PeriodicFrame.kStatus1, 20, 40)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 200);
+        // The through bore encoder is used for the pivot's feedback.
+        allocator.spark("Intake bottom", bottomIntakeMotor)
+            .need(PeriodicFrame.kStatus0, 10, 100)
+            .need(PeriodicFrame.kStatus1, 20, 40)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 200)
+            .need(PeriodicFrame.kStatus5, 20, 50)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus5, 200);
+    }
+
+    /**
+     * Adds the devices of this subsystem to the {@link DeviceHealthMonitor}.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor monitor = DeviceHealthMonitor.getInstance();
+        monitor.spark("Intake left pivot", leftPivotMotor);
+        monitor.spark("Intake right pivot", rightPivotMotor);
+        monitor.spark("Intake top", topIntakeMotor);
+        monitor.spark("Intake bottom", bottomIntakeMotor);
     }
 }
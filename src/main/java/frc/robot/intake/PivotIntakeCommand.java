@@ -4,22 +4,21 @@
 
 package frc.robot.intake;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.util.Units;
+import com.revrobotics.REVLibError;
+
 import edu.wpi.first.wpilibj2.command.Command;
-import frc.robot.constants.PhysicalConstants.IntakeConstants;
 import frc.robot.constants.Constants.IntakeStates;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
 import frc.robot.lights.LEDSubsystem;
 import frc.robot.lights.LEDSubsystem.LightState;
 import frc.robot.utilities.Telemetry;
 
 /**
  * A command to move the intake to a specific position.
+ * The profile and gravity feedforward run on the pivot leader, see {@link IntakeSubsystem#pivotGoToPosition(double)}.
  */
 public class PivotIntakeCommand extends Command {
     private IntakeStates state;
-    /** Uses radians for calculations. */
-    private PIDController pid;
 
     /**
      * Creates a new PivotIntakeCommand.
@@ -29,40 +28,30 @@ public class PivotIntakeCommand extends Command {
         setName("PivotIntakeCommand");
         
         this.state = state;
-        
-        // P is set in the initialize() method.
-        this.pid = new PIDController(0, 0, 0);
-        this.pid.setTolerance(this.state.getTolerance());
-        this.pid.enableContinuousInput(0, 2 * Math.PI);
 
         addRequirements(IntakeSubsystem.getInstance().getPivotRequirement());
     }
 
     @Override
     public void initialize() {
-        // Whether or not the intake is moving upwards.
-        boolean up = this.state.getAngle() - IntakeSubsystem.getInstance().getPivotPosition() > 0;
-        // Uses a different P value on the way up due to acting against gravity.
-        this.pid.setP(up ? IntakeConstants.PIVOT_PID_P_UP : IntakeConstants.PIVOT_PID_P_DOWN);
-        this.pid.reset();
+        // The through bore encoder is the reference, the leader's encoder is only written when it slipped.
+        if (IntakeSubsystem.getInstance().seedPivotEncoder() != REVLibError.kOk) {
+            Telemetry.logMessage(getName() + " could not seed the pivot encoder", LoggingTags.WARNING);
+        }
+        IntakeSubsystem.getInstance().pivotGoToPosition(this.state.getAngle());
         
         LEDSubsystem.getInstance().setLightState(LightState.CMD_RUNNING);
     }
 
     @Override
-    public void execute() {
-        double speed = this.pid.calculate(
-            Units.degreesToRadians(IntakeSubsystem.getInstance().getPivotPosition()),
-            Units.degreesToRadians(this.state.getAngle())
-        );
-        
-        IntakeSubsystem.getInstance().setPivotSpeed(speed);
-    }
+    public void execute() {}
 
     @Override
     public void end(boolean interrupted) {
-        IntakeSubsystem.getInstance().setPivotSpeed(0);
-        this.pid.close();
+        // The goal is kept when it is reached so the gravity feedforward keeps holding the intake.
+        if (interrupted) {
+            IntakeSubsystem.getInstance().setPivotSpeed(0);
+        }
 
         Telemetry.logCommandEnd(getName(), interrupted);
         LEDSubsystem.getInstance().setCommandStopState(interrupted);
@@ -4,14 +4,14 @@
 
 package frc.robot.intake;
 
-import java.util.Optional;
-
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.constants.Constants.IntakeStates;
 import frc.robot.constants.PhysicalConstants.SterilizerConstants;
 import frc.robot.lights.LEDSubsystem;
 import frc.robot.lights.LEDSubsystem.LightState;
 import frc.robot.shooter.SterilizerSubsystem;
+import frc.robot.utilities.Metrics;
 import frc.robot.utilities.Telemetry;
 
 /**
@@ -21,6 +21,10 @@ public class SpinIntakeCommand extends Command {
     private IntakeStates state;
     private boolean stopForNote;
     private boolean finished;
+    /** Timestamp of {@link SpinIntakeCommand#initialize()} in seconds. */
+    private double startTime;
+
+    private Metrics.Histogram cycleTime = Metrics.histogram("SpinIntakeCommand/CycleTime");
 
     /**
      * Creates a new SpinIntakeCommand.
@@ -56,39 +60,46 @@ public class SpinIntakeCommand extends Command {
     @Override
     public void initialize() {
         this.finished = false;
+        this.startTime = Timer.getFPGATimestamp();
+
+        IntakeSubsystem.getInstance().setIntakeSpeed(this.state.getSpeed());
+        if (this.stopForNote) {
+            if (this.state.getSpeed() < 0) {
+                SterilizerSubsystem.getInstance().setSpeed(-SterilizerConstants.FEEDING_SPEED);
+            }
+            else {
+                // The indexer stops the intake on the ready edge instead of waiting for this command's next loop.
+                SterilizerSubsystem.getInstance().startIndexing(IntakeSubsystem.getInstance()::setIntakeSpeed);
+            }
+        }
 
         LEDSubsystem.getInstance().setLightState(LightState.CMD_RUNNING);
     }
 
     @Override
     public void execute() {
-        IntakeSubsystem.getInstance().setIntakeSpeed(this.state.getSpeed());
-        
-        if (!this.stopForNote) return;
-
-        Optional<Boolean>[] hasNotesOptionals = SterilizerSubsystem.getInstance().getHasNotes();
-        boolean[] hasNotes = new boolean[]{
-            hasNotesOptionals[0].isPresent() && hasNotesOptionals[0].get(),
-            hasNotesOptionals[1].isPresent() && hasNotesOptionals[1].get()
-        };
-
-        if (this.state.getSpeed() < 0) {
-            SterilizerSubsystem.getInstance().setSpeed(-SterilizerConstants.FEEDING_SPEED);
-        }
-        else if (!hasNotes[0] && !hasNotes[1]) {
-            SterilizerSubsystem.getInstance().setSpeed(SterilizerConstants.FEEDING_SPEED);
-        }
-        else if (hasNotes[0] && !hasNotes[1]) {
-            SterilizerSubsystem.getInstance().setSpeed(SterilizerConstants.ADJUSTING_SPEED);
-        }
-        else if (hasNotes[1]) {
+        if (this.stopForNote && this.state.getSpeed() >= 0 && SterilizerSubsystem.getInstance().isNoteIndexed()) {
             this.finished = true;
+            // A note that was already in did not take a cycle.
+            double readyTimestamp = SterilizerSubsystem.getInstance().getReadyTimestamp();
+            if (readyTimestamp >= this.startTime) {
+                this.cycleTime.record(readyTimestamp - this.startTime);
+            }
+            return;
         }
+
+        IntakeSubsystem.getInstance().setIntakeSpeed(this.state.getSpeed());
     }
 
     @Override
-    public void end(boolean interrupted) {IntakeSubsystem.getInstance().setIntakeSpeed();
-        SterilizerSubsystem.getInstance().setSpeed();
+    public void end(boolean interrupted) {
+        IntakeSubsystem.getInstance().setIntakeSpeed();
+        if (this.stopForNote) {
+            SterilizerSubsystem.getInstance().stopIndexing();
+        }
+        else {
+            SterilizerSubsystem.getInstance().setSpeed();
+        }
 
         Telemetry.logCommandEnd(getName(), interrupted);
         LEDSubsystem.getInstance().setCommandStopState(interrupted);
@@ -8,6 +8,7 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.constants.Constants.ShuffleboardTabNames;
 import frc.robot.constants.PhysicalConstants.LEDConstants;
 import frc.robot.shooter.SterilizerSubsystem;
+import frc.robot.utilities.Metrics;
 
 import java.util.Map;
 
@@ -47,6 +48,8 @@ public class LEDSubsystem extends SubsystemBase {
     private LightState state;
     private Color previousColor;
 
+    private Metrics.Counter stateChanges = Metrics.counter("LEDSubsystem/StateChanges");
+
     private SimpleWidget SB_D_LED_WIDGET = Shuffleboard.getTab(ShuffleboardTabNames.DEFAULT)
         .add("LED Status", false);
     private GenericEntry SB_D_LED_ENTRY = SB_D_LED_WIDGET
@@ -123,7 +126,9 @@ public class LEDSubsystem extends SubsystemBase {
      */
     public void setLightState(LightState state, boolean overrideCurrentState) {
         if (overrideCurrentState || (!overrideCurrentState && this.state.equals(LightState.OFF))) {
-            System.out.println("LED State changed: " + state);
+            if (!this.state.equals(state)) {
+                this.stateChanges.increment();
+            }
             this.state = state;
         }
     }
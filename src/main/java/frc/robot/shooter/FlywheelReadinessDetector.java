@@ -0,0 +1,158 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.shooter;
+
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.PhysicalConstants.ShooterConstants;
+import frc.robot.utilities.Metrics;
+
+/**
+ * A class that decides when the shooting wheels are stable enough to shoot.
+ * <p>Each wheel's velocity is filtered and differentiated. A wheel is stable once its filtered velocity is
+ * within the allowed error and its acceleration is small, so a wheel overshooting through its goal does not count.
+ * The wheels are ready once both have been stable for {@link ShooterConstants.Readiness#DWELL_TIME}.</p>
+ * @apiNote {@link FlywheelReadinessDetector#update(double[])} should be called every loop.
+ */
+public class FlywheelReadinessDetector {
+    private final Wheel left = new Wheel("Left");
+    private final Wheel right = new Wheel("Right");
+
+    private double allowedError;
+    private double resetTime;
+    /** Timestamp both wheels became stable in seconds, -1 when they are not. */
+    private double stableTime = -1;
+    private boolean ready = false;
+
+    private final Metrics.Histogram timeToReady = Metrics.histogram("Flywheel/TimeToReady");
+
+    /**
+     * Starts detecting readiness for new goals.
+     * @param goals in RPM, left [0] and right [1].
+     * @param allowedError in RPM.
+     */
+    public void reset(double[] goals, double allowedError) {
+        this.allowedError = allowedError;
+        this.resetTime = Timer.getFPGATimestamp();
+        this.stableTime = -1;
+        this.ready = false;
+
+        this.left.reset(goals[0]);
+        this.right.reset(goals[1]);
+    }
+
+    /**
+     * Updates the detector with new velocities.
+     * @param velocities in RPM, left [0] and right [1].
+     * @return whether the wheels are ready.
+     */
+    public boolean update(double[] velocities) {
+        double timestamp = Timer.getFPGATimestamp();
+        boolean leftStable = this.left.update(velocities[0], this.allowedError, timestamp - this.resetTime);
+        boolean rightStable = this.right.update(velocities[1], this.allowedError, timestamp - this.resetTime);
+
+        if (!leftStable || !rightStable) {
+            this.stableTime = -1;
+            // Stays ready once ready, the feeding note slows the wheels down on purpose.
+            return this.ready;
+        }
+
+        if (this.stableTime < 0) {
+            this.stableTime = timestamp;
+        }
+        if (!this.ready && timestamp - this.stableTime >= ShooterConstants.Readiness.DWELL_TIME) {
+            this.ready = true;
+            this.timeToReady.record(timestamp - this.resetTime);
+        }
+        return this.ready;
+    }
+
+    /**
+     * Checks if both wheels are currently stable, without the dwell window.
+     * @return whether both wheels are stable.
+     */
+    public boolean isStable() {
+        return this.stableTime >= 0;
+    }
+
+    /**
+     * Checks if the wheels have been stable for the whole dwell window since the last reset.
+     * @return whether the wheels are ready.
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * The filtered state and stats of one shooting wheel.
+     */
+    private static class Wheel {
+        private final LinearFilter velocityFilter = LinearFilter.singlePoleIIR(
+            ShooterConstants.Readiness.VELOCITY_FILTER_TIME_CONSTANT, ShooterConstants.Readiness.LOOP_TIME);
+
+        private double goal;
+        private double filteredVelocity = Double.NaN;
+        private double acceleration = 0;
+        private double lastTimestamp;
+        private boolean reachedTolerance;
+
+        private final Metrics.Gauge error;
+        private final Metrics.Gauge accelerationGauge;
+        private final Metrics.Histogram timeToTolerance;
+
+        private Wheel(String name) {
+            this.error = Metrics.gauge("Flywheel/" + name + "/Error");
+            this.accelerationGauge = Metrics.gauge("Flywheel/" + name + "/Acceleration");
+            this.timeToTolerance = Metrics.histogram("Flywheel/" + name + "/TimeToTolerance");
+        }
+
+        /**
+         * Starts tracking a new goal.
+         * @param goal in RPM.
+         */
+        private void reset(double goal) {
+            this.goal = goal;
+            this.filteredVelocity = Double.NaN;
+            this.acceleration = 0;
+            this.reachedTolerance = false;
+        }
+
+        /**
+         * Filters a new velocity.
+         * @param velocity in RPM.
+         * @param allowedError in RPM.
+         * @param elapsed time since the reset in seconds.
+         * @return whether the wheel is stable.
+         */
+        private boolean update(double velocity, double allowedError, double elapsed) {
+            double timestamp = Timer.getFPGATimestamp();
+            if (Double.isNaN(this.filteredVelocity)) {
+                // Starts the filter at the current velocity instead of ramping up from 0.
+                this.velocityFilter.reset(new double[]{ velocity }, new double[]{ velocity });
+                this.filteredVelocity = velocity;
+            }
+            else {
+                double previous = this.filteredVelocity;
+                this.filteredVelocity = this.velocityFilter.calculate(velocity);
+                double dt = timestamp - this.lastTimestamp;
+                if (dt > 0) {
+                    this.acceleration = (this.filteredVelocity - previous) / dt;
+                }
+            }
+            this.lastTimestamp = timestamp;
+
+            double error = Math.abs(this.goal - this.filteredVelocity);
+            this.error.set(error);
+            this.accelerationGauge.set(this.acceleration);
+
+            boolean inTolerance = error <= allowedError;
+            if (inTolerance && !this.reachedTolerance) {
+                this.reachedTolerance = true;
+                this.timeToTolerance.record(elapsed);
+            }
+            return inTolerance && Math.abs(this.acceleration) <= ShooterConstants.Readiness.MAX_ACCELERATION;
+        }
+    }
+}
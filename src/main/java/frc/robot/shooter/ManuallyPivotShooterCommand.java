@@ -8,11 +8,16 @@ import java.util.function.Supplier;
 
 import edu.wpi.first.wpilibj2.command.Command;
 
-/** A command that moves the shooter pivot to a desired position. */
+/**
+ * A command that moves the shooter pivot to a desired position.
+ * Both sides move together unless they are given their own speeds.
+ */
 public class ManuallyPivotShooterCommand extends Command {
     private final Supplier<Double> leftSpeedSupplier;
     private final Supplier<Double> rightSpeedSupplier;
     private final boolean swapSides;
+    /** Whether both sides follow the left supplier with the skew correction. */
+    private final boolean together;
 
     /**
     * Creates a new ManuallyPivotShooterCommand.
@@ -26,6 +31,23 @@ public class ManuallyPivotShooterCommand extends Command {
         this.leftSpeedSupplier = leftSpeedSupplier;
         this.rightSpeedSupplier = rightSpeedSupplier;
         this.swapSides = swapSides;
+        this.together = false;
+        
+        addRequirements(ShooterSubsystem.getInstance().getPivotRequirement());
+    }
+
+    /**
+    * Creates a new ManuallyPivotShooterCommand that moves both sides together.
+    * @param speedSupplier speed from -1.0 to 1.0 to move the pivot.
+    * @see {@link ShooterSubsystem#setPivotSpeed(double, boolean)} for the skew correction.
+    */
+    public ManuallyPivotShooterCommand(Supplier<Double> speedSupplier) {
+        setName("ManuallyPivotShooterCommand");
+
+        this.leftSpeedSupplier = speedSupplier;
+        this.rightSpeedSupplier = speedSupplier;
+        this.swapSides = false;
+        this.together = true;
         
         addRequirements(ShooterSubsystem.getInstance().getPivotRequirement());
     }
@@ -35,29 +57,13 @@ public class ManuallyPivotShooterCommand extends Command {
 
     @Override
     public void execute() {
-        double leftSpeed = leftSpeedSupplier.get();
-        double rightSpeed = rightSpeedSupplier.get();
-        
-        if (Math.abs(leftSpeed) >= 0.85) {
-            leftSpeed = Math.signum(leftSpeed) * 0.2;
-        }
-        else if (Math.abs(leftSpeed) >= 0.15) {
-            leftSpeed = Math.signum(leftSpeed) * 0.1;
-        }
-        else {
-            leftSpeed = 0;
-        }
-
-        if (Math.abs(rightSpeed) >= 0.85) {
-            rightSpeed = Math.signum(rightSpeed) * 0.2;
-        }
-        else if (Math.abs(rightSpeed) >= 0.15) {
-            rightSpeed = Math.signum(rightSpeed) * 0.1;
-        }
-        else {
-            rightSpeed = 0;
+        double leftSpeed = toPivotSpeed(leftSpeedSupplier.get());
+        if (this.together) {
+            ShooterSubsystem.getInstance().setPivotSpeed(leftSpeed, true);
+            return;
         }
 
+        double rightSpeed = toPivotSpeed(rightSpeedSupplier.get());
         ShooterSubsystem.getInstance().setPivotSpeed(
             swapSides ? rightSpeed : leftSpeed,
             swapSides ? leftSpeed : rightSpeed,
@@ -70,6 +76,21 @@ public class ManuallyPivotShooterCommand extends Command {
         ShooterSubsystem.getInstance().setPivotSpeed();
     }
 
+    /**
+     * Converts a joystick input to one of the pivot speeds.
+     * @param input from -1.0 to 1.0.
+     * @return the speed.
+     */
+    private static double toPivotSpeed(double input) {
+        if (Math.abs(input) >= 0.85) {
+            return Math.signum(input) * 0.2;
+        }
+        else if (Math.abs(input) >= 0.15) {
+            return Math.signum(input) * 0.1;
+        }
+        return 0;
+    }
+
     // This command will always never end due to being a default command.
     @Override
     public boolean isFinished() {
@@ -4,48 +4,53 @@
 
 package frc.robot.shooter;
 
-import java.util.Optional;
-
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import frc.robot.constants.PhysicalConstants.RobotConstants;
 import frc.robot.constants.PhysicalConstants.ShooterConstants;
-import frc.robot.constants.Positions;
 import frc.robot.constants.Constants.ShooterStates;
 import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
 import frc.robot.lights.LEDSubsystem;
 import frc.robot.lights.LEDSubsystem.LightState;
-import frc.robot.swerve.SwerveSubsystem;
+import frc.robot.utilities.Metrics;
 import frc.robot.utilities.Telemetry;
 
 /**
  * A command that moves the shooter pivot to a desired position using Motion Magic.
+ * In tracking mode, calculated angles follow the {@link ShotSolution} every loop and the command does not end.
  */
 public class PivotShooterMMCommand extends Command {
     private double shootingAngle;
     private ShooterStates state;
+    private boolean tracking;
+
+    private Metrics.Counter trackingUpdates = Metrics.counter("PivotShooterMMCommand/TrackingUpdates");
 
     /**
      * Creates a new PivotShooterMMCommand.
      * @param state of the shooter to reach.
      */
     public PivotShooterMMCommand(ShooterStates state) {
+        this(state, false);
+    }
+
+    /**
+     * Creates a new PivotShooterMMCommand.
+     * @param state of the shooter to reach.
+     * @param tracking whether to keep following the calculated angle until interrupted.
+     * Only used if the state calculates its angle.
+     */
+    public PivotShooterMMCommand(ShooterStates state, boolean tracking) {
         setName("PivotShooterMMCommand");
         
         this.state = state;
+        this.tracking = tracking && state.getCalculateAngle();
         
         addRequirements(ShooterSubsystem.getInstance().getPivotRequirement());
     }
     
     @Override
     public void initialize() {
-        ShooterSubsystem.getInstance().setRotorPositions();
-
         if(!this.state.getCalculateAngle()) {
             this.shootingAngle = this.state.getAngle();
             LEDSubsystem.getInstance().setLightState(LightState.CMD_RUNNING);
@@ -53,25 +58,15 @@ public class PivotShooterMMCommand extends Command {
             return;
         }
 
-        Optional<DriverStation.Alliance> alliance = DriverStation.getAlliance();
-        if (!alliance.isPresent()) {
+        ShotSolution solution = ShotSolver.getInstance().getSolution();
+        if (!solution.isValid()) {
             Telemetry.logMessage("DriverStation alliance is not present", LoggingTags.ERROR);
             CommandScheduler.getInstance().cancel(this);
             return;
         }
 
-        // Calculating shooter angles based off current bot position.
-        Translation3d point = Positions.SPEAKER_TARGETS.get(DriverStation.getAlliance().get());
-        Pose2d botpose = SwerveSubsystem.getInstance().getPose();
-
-        // Calculates horizontal distance to speaker.
-        double dist = Math.sqrt(
-            Math.pow(point.getX() - botpose.getX(), 2) +
-            Math.pow(point.getY() - botpose.getY(), 2)
-        );
-        
-        // Calculates angle from bot to speaker height.
-        this.shootingAngle = Units.radiansToDegrees(Math.atan((point.getZ() - RobotConstants.SHOOTER_PIVOT_HEIGHT) / dist));
+        // Measured shots account for the note dropping and the solver for the robot moving.
+        this.shootingAngle = solution.getAngle();
         
         // Clamps the angle within the pivot limits.
         this.shootingAngle = MathUtil.clamp(this.shootingAngle, ShooterConstants.Pivot.ANGLE_LIMITS[0], ShooterConstants.Pivot.ANGLE_LIMITS[1]);
@@ -82,7 +77,20 @@ public class PivotShooterMMCommand extends Command {
     }
 
     @Override
-    public void execute() {}
+    public void execute() {
+        if (!this.tracking) return;
+        ShotSolution solution = ShotSolver.getInstance().getSolution();
+        if (!solution.isValid()) return;
+
+        double angle = MathUtil.clamp(solution.getAngle(),
+            ShooterConstants.Pivot.ANGLE_LIMITS[0], ShooterConstants.Pivot.ANGLE_LIMITS[1]);
+        // Small changes are within the allowed error, sending them would only load the bus.
+        if (Math.abs(angle - this.shootingAngle) < ShooterConstants.Pivot.TRACKING_DEADBAND) return;
+
+        this.shootingAngle = angle;
+        ShooterSubsystem.getInstance().pivotGoToPosition(this.shootingAngle);
+        this.trackingUpdates.increment();
+    }
 
     @Override
     public void end(boolean interrupted) {
@@ -94,6 +102,8 @@ public class PivotShooterMMCommand extends Command {
 
     @Override
     public boolean isFinished() {
+        if (this.tracking) return false;
+
         double[] pivotPositions = ShooterSubsystem.getInstance().getCANcoderPositions();
         return Math.abs(pivotPositions[0] - this.shootingAngle) <= ShooterConstants.Pivot.ALLOWED_ERROR
             && Math.abs(pivotPositions[1] - this.shootingAngle) <= ShooterConstants.Pivot.ALLOWED_ERROR;
@@ -11,7 +11,7 @@ import frc.robot.utilities.Telemetry;
  * A command that spins the shooting wheels to a desired speed and never ends.
  */
 public class RevUpCommand extends Command {
-    private double[] rpms;
+    private final double[] rpms = new double[2];
     private ShooterStates state;
 
     /**
@@ -22,7 +22,8 @@ public class RevUpCommand extends Command {
     public RevUpCommand(double velocity) {
         setName("RevUpCommand");
 
-        this.rpms = new double[]{velocity, velocity};
+        this.rpms[0] = velocity;
+        this.rpms[1] = velocity;
         this.state = null;
         
         addRequirements(ShooterSubsystem.getInstance().getShootingRequirement());
@@ -44,8 +45,9 @@ public class RevUpCommand extends Command {
     @Override
     public void initialize() {
         if (this.state != null) {
-            double rpm = this.state.getRPMs(false)[1];
-            this.rpms = new double[]{rpm, rpm};
+            double rpm = this.state.getRPM();
+            this.rpms[0] = rpm;
+            this.rpms[1] = rpm;
         }
 
         ShooterSubsystem.getInstance().setShootingVelocities(this.rpms);
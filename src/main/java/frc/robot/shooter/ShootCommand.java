@@ -4,28 +4,58 @@
 
 package frc.robot.shooter;
 
-import java.util.Optional;
-
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.constants.Constants.ShooterStates;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.NoteDetectionConstants;
+import frc.robot.constants.PhysicalConstants.ShooterConstants;
 import frc.robot.constants.PhysicalConstants.SterilizerConstants;
 import frc.robot.lights.LEDSubsystem;
 import frc.robot.lights.LEDSubsystem.LightState;
-import frc.robot.swerve.SwerveSubsystem;
+import frc.robot.shooter.SterilizerSubsystem.NoteState;
+import frc.robot.utilities.Metrics;
 import frc.robot.utilities.Telemetry;
 
 /**
  * A command that spins the shooting wheels to a desired speed and
  * feeds a note to them.
+ * <p>The shot goes through {@link Phase}s that each have their own timeout and never block the loop.</p>
  */
 public class ShootCommand extends Command {
+    /** Phases of a shot, in order. */
+    private static enum Phase {
+        /** Waiting for the wheels to reach the goal speed. */
+        SPIN_UP,
+        /** Waiting for the wheels to stay stable for the dwell window. */
+        STABLE,
+        /** Feeding the note until the sterilizer is empty. */
+        FEED,
+        /** Still feeding while the note passes through the wheels. */
+        CONFIRM_EXIT,
+        /** Stopping the wheels and the sterilizer, instant so it has no phase time. */
+        SPIN_DOWN
+    }
+
     private ShooterStates state;
-    private boolean invertSpin;
-    /** Move the sterilizer once speeds are within error and then ignore the speeds entirely. */
-    private boolean reachedRPM;
+    // Reused every shot and loop, left [0] and right [1] in RPM.
+    private final double[] rpmGoals = new double[2];
+    private final double[] velocities = new double[2];
     private boolean finished;
 
+    private Phase phase;
+    /** Timestamp of the start of the current phase in seconds. */
+    private double phaseStartTime;
+    /** Timestamp the note left the sterilizer in seconds. */
+    private double exitTimestamp;
+    /** Whether the feeder was seen gripping the note since the start of the feed. */
+    private boolean feederGripped;
+
+    private FlywheelReadinessDetector readiness = new FlywheelReadinessDetector();
+    // Indexed by phase, null for SPIN_DOWN which ends the command.
+    private Metrics.Histogram[] phaseTimes = new Metrics.Histogram[Phase.values().length];
+    private Metrics.Counter phaseTimeouts = Metrics.counter("ShootCommand/PhaseTimeouts");
+
     /**
      * Creates a new ShootCommand.
      * @param state the shooter state to follow.
@@ -34,6 +64,10 @@ public class ShootCommand extends Command {
         setName("ShootCommand");
 
         this.state = state;
+        for (Phase phase : Phase.values()) {
+            if (phase == Phase.SPIN_DOWN) continue;
+            this.phaseTimes[phase.ordinal()] = Metrics.histogram("ShootCommand/PhaseTime/" + phase.name());
+        }
         
         addRequirements(ShooterSubsystem.getInstance().getShootingRequirement(), SterilizerSubsystem.getInstance());
     }
@@ -42,53 +76,93 @@ public class ShootCommand extends Command {
     public void initialize() {
         this.finished = false;
 
-        this.invertSpin = !this.state.getCalculateAngle()
-            || SwerveSubsystem.getInstance().getHeading() < 180 ? false : true;
-        ShooterSubsystem.getInstance().setShootingVelocities(this.state.getRPMs(this.invertSpin));
+        setGoals(this.state.getRPM());
 
-        this.reachedRPM = false;
+        this.phase = Phase.SPIN_UP;
+        this.phaseStartTime = Timer.getFPGATimestamp();
 
         LEDSubsystem.getInstance().setLightState(LightState.CMD_RUNNING);
     }
 
     @Override
     public void execute() {
-        if (!this.reachedRPM) {
-            double[] velocities = ShooterSubsystem.getInstance().getShootingVelocities();
-            double[] rpmGoals = this.state.getRPMs(this.invertSpin);
-            System.out.println("Diff : [" + (int) Math.abs(rpmGoals[0] - velocities[0])
-                + " | " + (int) Math.abs(rpmGoals[1] - velocities[1]) +  "]"
-            );
-            
-            if (Math.abs(rpmGoals[0] - velocities[0]) > this.state.getAllowedError()
-                || Math.abs(rpmGoals[1] - velocities[1]) > this.state.getAllowedError())
-                return;
-            this.reachedRPM = true;
+        // Follows the distance like the tracking pivot until the note is fed, the goal is fixed while feeding.
+        if ((this.phase == Phase.SPIN_UP || this.phase == Phase.STABLE) && this.state.getCalculateAngle()) {
+            ShotSolution solution = ShotSolver.getInstance().getSolution();
+            if (solution.isValid() && Math.abs(solution.getRPM() - this.rpmGoals[0]) > this.state.getAllowedError()) {
+                setGoals(solution.getRPM());
+            }
         }
 
-        Optional<Boolean>[] hasNote = SterilizerSubsystem.getInstance().getHasNotes();
-        SterilizerSubsystem.getInstance().setSpeed(SterilizerConstants.FEEDING_SPEED);
-        
-        if (!this.state.getAutoEndShooting()) return;
-        
-        if (hasNote[0].isEmpty() || hasNote[1].isEmpty()) {
-            Timer.delay(1);
-            this.finished = true;
-        }
-        else if (!hasNote[0].get() && !hasNote[1].get()) {
-            this.finished = true;
-        }
-        else {
-            Timer.delay(0.25);
+        double phaseTime = Timer.getFPGATimestamp() - this.phaseStartTime;
+        this.readiness.update(ShooterSubsystem.getInstance().getShootingVelocities(this.velocities));
+
+        switch (this.phase) {
+            case SPIN_UP:
+                if (this.readiness.isStable()) {
+                    setPhase(Phase.STABLE);
+                }
+                else if (phaseTime >= ShooterConstants.ShotTiming.SPIN_UP_TIMEOUT) {
+                    timeout("did not reach speed, feeding anyway");
+                    setPhase(Phase.FEED);
+                }
+                break;
+
+            case STABLE:
+                if (this.readiness.isReady()) {
+                    setPhase(Phase.FEED);
+                }
+                else if (!this.readiness.isStable()) {
+                    setPhase(Phase.SPIN_UP);
+                }
+                break;
+
+            case FEED:
+                if (!this.state.getAutoEndShooting()) break;
+
+                SterilizerSubsystem sterilizer = SterilizerSubsystem.getInstance();
+                this.feederGripped |= sterilizer.isFeederLoaded();
+                if (sterilizer.isLaserValid() && sterilizer.getNoteState() == NoteState.EMPTY) {
+                    // The note left between loops, the exit is confirmed from that edge.
+                    this.exitTimestamp = sterilizer.getExitTimestamp() >= this.phaseStartTime
+                        ? sterilizer.getExitTimestamp() : Timer.getFPGATimestamp();
+                    setPhase(Phase.CONFIRM_EXIT);
+                }
+                // A glitching laser falls back on the fused confidence, which follows the feeder's load.
+                // The feeder starts the feed loaded, so only its release after a seen grip confirms the exit.
+                else if (!sterilizer.isLaserValid() && this.feederGripped && !sterilizer.isFeederLoaded()
+                    && sterilizer.getNoteConfidence() < NoteDetectionConstants.CONFIDENCE_THRESHOLD) {
+                    this.exitTimestamp = Timer.getFPGATimestamp();
+                    setPhase(Phase.CONFIRM_EXIT);
+                }
+                // Without any sensor the note is assumed to be gone after the timeout.
+                else if (phaseTime >= ShooterConstants.ShotTiming.FEED_TIMEOUT) {
+                    timeout(sterilizer.isLaserValid() ? "note is still in the sterilizer" : "lasers are not valid");
+                    this.exitTimestamp = Timer.getFPGATimestamp();
+                    setPhase(Phase.CONFIRM_EXIT);
+                }
+                break;
+
+            case CONFIRM_EXIT:
+                if (Timer.getFPGATimestamp() - this.exitTimestamp >= ShooterConstants.ShotTiming.EXIT_CONFIRM_TIME) {
+                    setPhase(Phase.SPIN_DOWN);
+                }
+                break;
+
+            case SPIN_DOWN:
+                break;
         }
     }
 
     @Override
     public void end(boolean interrupted) {
+        if (this.phase != Phase.SPIN_DOWN) {
+            recordPhaseTime();
+        }
         ShooterSubsystem.getInstance().setShootingVelocities();
         SterilizerSubsystem.getInstance().setSpeed();
 
-        Telemetry.logCommandEnd(getName(), interrupted);
+        Telemetry.logCommandEnd(getName(), interrupted, this.phase.name());
         LEDSubsystem.getInstance().setCommandStopState(interrupted);
     }
 
@@ -96,4 +170,55 @@ public class ShootCommand extends Command {
     public boolean isFinished() {
         return this.finished;
     }
+
+    /**
+     * Gives the wheels new goals and restarts the readiness detection.
+     * @param rpm of both shooting wheels.
+     */
+    private void setGoals(double rpm) {
+        this.rpmGoals[0] = rpm;
+        this.rpmGoals[1] = rpm;
+        ShooterSubsystem.getInstance().setShootingVelocities(this.rpmGoals);
+        this.readiness.reset(this.rpmGoals, this.state.getAllowedError());
+    }
+
+    /**
+     * Records the time spent in the current phase and starts the next one.
+     * @param next phase to start.
+     */
+    private void setPhase(Phase next) {
+        recordPhaseTime();
+        this.phase = next;
+        this.phaseStartTime = Timer.getFPGATimestamp();
+
+        switch (next) {
+            case FEED:
+                this.feederGripped = false;
+                SterilizerSubsystem.getInstance().setSpeed(SterilizerConstants.FEEDING_SPEED);
+                break;
+            case SPIN_DOWN:
+                ShooterSubsystem.getInstance().setShootingVelocities();
+                SterilizerSubsystem.getInstance().setSpeed();
+                this.finished = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records the time spent in the current phase.
+     */
+    private void recordPhaseTime() {
+        this.phaseTimes[this.phase.ordinal()].record(Timer.getFPGATimestamp() - this.phaseStartTime);
+    }
+
+    /**
+     * Reports a phase that timed out.
+     * @param reason of the timeout.
+     */
+    private void timeout(String reason) {
+        this.phaseTimeouts.increment();
+        Telemetry.logMessage(getName() + " " + this.phase.name() + " timed out, " + reason, LoggingTags.WARNING);
+    }
 }
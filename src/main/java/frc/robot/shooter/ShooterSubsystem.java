@@ -4,30 +4,68 @@
 
 package frc.robot.shooter;
 
+import static edu.wpi.first.units.Units.RPM;
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.Seconds;
+import static edu.wpi.first.units.Units.Volts;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.revrobotics.CANSparkFlex;
 import com.revrobotics.SparkPIDController;
 import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.units.Angle;
+import edu.wpi.first.units.Measure;
+import edu.wpi.first.units.MutableMeasure;
+import edu.wpi.first.units.Velocity;
+import edu.wpi.first.units.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
+import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
+import frc.robot.can.StatusFrameAllocator.SparkDevice;
 import frc.robot.constants.PhysicalConstants.RobotConstants;
 import frc.robot.constants.PhysicalConstants.ShooterConstants;
-import frc.robot.constants.PrimeNumbers;
+import frc.robot.constants.PhysicalConstants.SimulationConstants;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
 
 /**
  * A subsystem that moves and controls the shooter.
@@ -75,13 +113,86 @@ public class ShooterSubsystem extends SubsystemBase {
     private SparkPIDController rightPID = rightShooter.getPIDController();
     private CANSparkFlex leftShooter = new CANSparkFlex(ShooterConstants.LEFT_SHOOTER_MOTOR_ID, MotorType.kBrushless);
     private SparkPIDController leftPID = leftShooter.getPIDController();
+    /** Speeds up the velocity frames while the wheels are spinning. */
+    private StatusFrameAllocator.Boost leftVelocityBoost;
+    private StatusFrameAllocator.Boost rightVelocityBoost;
+    private SimpleMotorFeedforward leftFeedforward = new SimpleMotorFeedforward(
+        ShooterConstants.Shooting.Left.kS, ShooterConstants.Shooting.Left.kV, ShooterConstants.Shooting.Left.kA);
+    private SimpleMotorFeedforward rightFeedforward = new SimpleMotorFeedforward(
+        ShooterConstants.Shooting.Right.kS, ShooterConstants.Shooting.Right.kV, ShooterConstants.Shooting.Right.kA);
+    /** Velocities that stop both wheels, only read. */
+    private static final double[] STOPPED = new double[2];
+
+    // Reused by the SysId log every loop.
+    private MutableMeasure<Voltage> sysIdVoltage = MutableMeasure.mutable(Volts.of(0));
+    private MutableMeasure<Angle> sysIdPosition = MutableMeasure.mutable(Rotations.of(0));
+    private MutableMeasure<Velocity<Angle>> sysIdVelocity = MutableMeasure.mutable(RPM.of(0));
+    /** Characterizes both shooting wheels at once, each is logged as its own motor. */
+    private SysIdRoutine shootingRoutine = new SysIdRoutine(
+        new SysIdRoutine.Config(),
+        new SysIdRoutine.Mechanism(
+            (Measure<Voltage> volts) -> {
+                leftShooter.setVoltage(volts.in(Volts));
+                rightShooter.setVoltage(volts.in(Volts));
+            },
+            (SysIdRoutineLog log) -> {
+                logSysIdMotor(log, "shooter-left", leftShooter);
+                logSysIdMotor(log, "shooter-right", rightShooter);
+            },
+            this.shootingRequirement
+        )
+    );
     
-    // Pivot
+    // Pivot, the left Talon leads and the right one follows with a correction for the skew between the CANcoders.
     private MotionMagicVoltage motionMagicVoltage = new MotionMagicVoltage(0);
+    private MotionMagicVoltage followerMotionMagicVoltage = new MotionMagicVoltage(0);
+    /** Whether the pivot is following a Motion Magic goal, the follower's correction is then updated every loop. */
+    private boolean pivotFollowingGoal = false;
+    private boolean pivotSkewed = false;
+    private Metrics.Gauge pivotSkew = Metrics.gauge("ShooterPivot/Skew");
+    private Metrics.Counter pivotSkewWarnings = Metrics.counter("ShooterPivot/SkewWarnings");
     private TalonFX rightPivotMotor = new TalonFX(ShooterConstants.LEFT_PIVOT_MOTOR_ID, RobotConstants.SWERVE_CAN_BUS);
     private TalonFX leftPivotMotor = new TalonFX(ShooterConstants.RIGHT_PIVOT_MOTOR_ID, RobotConstants.SWERVE_CAN_BUS);
     private CANcoder rightCANcoder = new CANcoder(ShooterConstants.RIGHT_CANCODER_ID, RobotConstants.SWERVE_CAN_BUS);
     private CANcoder leftCANcoder = new CANcoder(ShooterConstants.LEFT_CANCODER_ID, RobotConstants.SWERVE_CAN_BUS);
+    private VoltageOut pivotVoltage = new VoltageOut(0);
+
+    /** Characterizes both pivot Talons at once, each is logged as its own motor. */
+    private SysIdRoutine pivotRoutine = new SysIdRoutine(
+        new SysIdRoutine.Config(
+            Volts.of(ShooterConstants.PIVOT_SYSID_RAMP_RATE).per(Seconds.of(1)),
+            Volts.of(ShooterConstants.PIVOT_SYSID_STEP_VOLTAGE),
+            null
+        ),
+        new SysIdRoutine.Mechanism(
+            (Measure<Voltage> volts) -> setPivotVoltage(volts.in(Volts)),
+            (SysIdRoutineLog log) -> {
+                logSysIdMotor(log, "pivot-left", leftPivotMotor);
+                logSysIdMotor(log, "pivot-right", rightPivotMotor);
+            },
+            this.pivotRequirement
+        )
+    );
+
+    // Simulation, the models are null unless simulated.
+    /** Last requested wheel velocities in RPM, left [0] and right [1]. */
+    private final double[] velocityGoals = new double[2];
+    private FlywheelSim leftFlywheelSimulation = RobotBase.isSimulation()
+        ? createFlywheelSimulation(ShooterConstants.Shooting.Left.kV, ShooterConstants.Shooting.Left.kA) : null;
+    private FlywheelSim rightFlywheelSimulation = RobotBase.isSimulation()
+        ? createFlywheelSimulation(ShooterConstants.Shooting.Right.kV, ShooterConstants.Shooting.Right.kA) : null;
+    /** Both pivot Talons drive the same model, 0 is horizontal. */
+    private SingleJointedArmSim pivotSimulation = RobotBase.isSimulation()
+        ? new SingleJointedArmSim(
+            DCMotor.getFalcon500(2),
+            ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO,
+            SingleJointedArmSim.estimateMOI(SimulationConstants.ShooterPivot.LENGTH, SimulationConstants.ShooterPivot.MASS),
+            SimulationConstants.ShooterPivot.LENGTH,
+            Units.degreesToRadians(ShooterConstants.Pivot.ANGLE_LIMITS[0]),
+            Units.degreesToRadians(ShooterConstants.Pivot.ANGLE_LIMITS[1]),
+            true,
+            Units.degreesToRadians(ShooterConstants.Pivot.ANGLE_LIMITS[0]))
+        : null;
 
     /**
      * Creates a new ShooterSubsystem, and configures motors.
@@ -93,28 +204,85 @@ public class ShooterSubsystem extends SubsystemBase {
         
         configureMotionMagic();
         configureShootingPID();
-        setRotorPositions();
 
         setStatusFrames();
+        registerHealthChecks();
+
+        if (RobotBase.isSimulation()) {
+            // Matches the inversion of the right Talon so that its simulated rotor turns with the pivot.
+            this.rightPivotMotor.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+        }
+    }
+
+    @Override
+    public void periodic() {
+        double skew = getPivotSkew();
+        monitorPivotSkew(skew);
+        if (this.pivotFollowingGoal) {
+            rightPivotMotor.setControl(followerMotionMagicVoltage.withFeedForward(getSkewCorrection(skew)));
+        }
     }
 
     @Override
-    public void periodic() {}
+    public void simulationPeriodic() {
+        double dt = TimedRobot.kDefaultPeriod;
+
+        // The Sparks' velocity loops are not simulated, so they are run here with the same gains.
+        simulateFlywheel(this.leftFlywheelSimulation, this.leftFeedforward, this.velocityGoals[0], dt);
+        simulateFlywheel(this.rightFlywheelSimulation, this.rightFeedforward, this.velocityGoals[1], dt);
+
+        // The Talons run Motion Magic on the simulated CANcoders.
+        TalonFXSimState leftMotor = this.leftPivotMotor.getSimState();
+        TalonFXSimState rightMotor = this.rightPivotMotor.getSimState();
+        leftMotor.setSupplyVoltage(RobotController.getBatteryVoltage());
+        rightMotor.setSupplyVoltage(RobotController.getBatteryVoltage());
+        this.pivotSimulation.setInputVoltage((leftMotor.getMotorVoltage() + rightMotor.getMotorVoltage()) / 2);
+        this.pivotSimulation.update(dt);
+
+        double position = Units.radiansToRotations(this.pivotSimulation.getAngleRads());
+        double velocity = Units.radiansToRotations(this.pivotSimulation.getVelocityRadPerSec());
+        simulatePivotSide(leftMotor, this.leftCANcoder.getSimState(), position, velocity);
+        simulatePivotSide(rightMotor, this.rightCANcoder.getSimState(), position, velocity);
+    }
 
     /**
      * Configures motion magic for the shooter pivot Talons.
+     * The Talons close the loop on their CANcoders, so the rotors never need to be seeded.
      */
     private void configureMotionMagic() {
-        // Shared configurations
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+
+        // Right motor not inverted.
+        TalonFXConfiguration rightConfiguration = createPivotConfiguration(
+            InvertedValue.Clockwise_Positive, this.rightCANcoder.getDeviceID());
+        orchestrator.configure("Shooter right pivot",
+            StartupOrchestrator.phoenix(() -> this.rightPivotMotor.getConfigurator().apply(rightConfiguration)));
+
+        // Left motor inverted.
+        TalonFXConfiguration leftConfiguration = createPivotConfiguration(
+            InvertedValue.CounterClockwise_Positive, this.leftCANcoder.getDeviceID());
+        orchestrator.configure("Shooter left pivot",
+            StartupOrchestrator.phoenix(() -> this.leftPivotMotor.getConfigurator().apply(leftConfiguration)));
+    }
+
+    /**
+     * Creates the configuration of a pivot Talon.
+     * @param inverted direction of the motor.
+     * @param cancoderID of the CANcoder on the same side.
+     * @return the configuration.
+     */
+    private TalonFXConfiguration createPivotConfiguration(InvertedValue inverted, int cancoderID) {
         TalonFXConfiguration configuration = new TalonFXConfiguration();
         
         FeedbackConfigs feedbackConfigs = configuration.Feedback;
-        feedbackConfigs.FeedbackSensorSource = FeedbackSensorSourceValue.RotorSensor;
-        // feedbackConfigs.FeedbackSensorSource = FeedbackSensorSourceValue.RemoteCANcoder;
+        // Closes the loop on the absolute pivot angle, so the position does not drift over a match.
+        // FusedCANcoder would also use the rotor between CANcoder updates, but it requires Phoenix Pro.
+        feedbackConfigs.FeedbackSensorSource = FeedbackSensorSourceValue.RemoteCANcoder;
+        feedbackConfigs.FeedbackRemoteSensorID = cancoderID;
 
-        // Sets the gear ratio from the motor to the mechanism (pivot).
-        // This is 1 because we use MotionMagic with the rotor,
-        // and we multiply all inputs to go to the right rotor position.
+        // The CANcoder is on the pivot shaft, so positions are in pivot rotations and
+        // Arm_Cosine sees the real angle, 0 is horizontal.
+        feedbackConfigs.RotorToSensorRatio = ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO;
         feedbackConfigs.SensorToMechanismRatio = 1;
         
         MotorOutputConfigs motorOutputConfigs = configuration.MotorOutput;
@@ -124,6 +292,10 @@ public class ShooterSubsystem extends SubsystemBase {
         Slot0Configs slot0Configs = configuration.Slot0;
         slot0Configs.kS = ShooterConstants.slot0Configs.kS;
         slot0Configs.kV = ShooterConstants.slot0Configs.kV;
+        slot0Configs.kA = ShooterConstants.slot0Configs.kA;
+        // Holds the pivot against gravity, which is strongest when the pivot is horizontal.
+        slot0Configs.GravityType = GravityTypeValue.Arm_Cosine;
+        slot0Configs.kG = ShooterConstants.slot0Configs.kG;
         slot0Configs.kP = ShooterConstants.slot0Configs.kP;
         slot0Configs.kI = ShooterConstants.slot0Configs.kI;
         slot0Configs.kD = ShooterConstants.slot0Configs.kD;
@@ -135,46 +307,103 @@ public class ShooterSubsystem extends SubsystemBase {
         motionMagicConfigs.MotionMagicJerk = ShooterConstants.MOTION_MAGIC_JERK;
         
         // Motor-specific configurations.
-        motorOutputConfigs.Inverted = InvertedValue.Clockwise_Positive; // Right motor not inverted.
-        feedbackConfigs.FeedbackRemoteSensorID = this.rightCANcoder.getDeviceID();
-        this.rightPivotMotor.getConfigurator().apply(configuration);
-        
-        motorOutputConfigs.Inverted = InvertedValue.CounterClockwise_Positive; // Left motor inverted.
-        feedbackConfigs.FeedbackRemoteSensorID = this.leftCANcoder.getDeviceID();
-        this.leftPivotMotor.getConfigurator().apply(configuration);
+        motorOutputConfigs.Inverted = inverted;
+        return configuration;
     }
 
     /**
      * Configures PID for both shooting motors.
+     * The feedforward is computed in volts by {@link ShooterSubsystem#setShootingVelocities(double[])},
+     * so the Spark's own kFF is not used.
+     * The encoders average less than their defaults so that the {@link FlywheelReadinessDetector} sees less lag.
      */
     private void configureShootingPID() {
-        // Left shooter
-        leftPID.setP(ShooterConstants.Shooting.kP_SHOOTING);
-        leftPID.setFF(ShooterConstants.Shooting.kFF_SHOOTING);
-        leftPID.setOutputRange(-1, 1);
-        
-        // Right shooter
-        rightPID.setP(ShooterConstants.Shooting.kP_SHOOTING);
-        rightPID.setFF(ShooterConstants.Shooting.kFF_SHOOTING);
-        rightPID.setOutputRange(-1, 1);
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+
+        Telemetry.logMessage("Shooter feedforward left " + describeFeedforward(this.leftFeedforward)
+            + ", right " + describeFeedforward(this.rightFeedforward), LoggingTags.INFO);
+
+        orchestrator.configure("Shooter left wheel",
+            StartupOrchestrator.rev(() -> leftShooter.enableVoltageCompensation(ShooterConstants.Shooting.NOMINAL_VOLTAGE)),
+            StartupOrchestrator.rev(() -> leftPID.setP(ShooterConstants.Shooting.kP_SHOOTING)),
+            StartupOrchestrator.rev(() -> leftPID.setFF(0)),
+            StartupOrchestrator.rev(() -> leftPID.setOutputRange(-1, 1)),
+            StartupOrchestrator.rev(() -> leftShooter.getEncoder()
+                .setMeasurementPeriod(ShooterConstants.Readiness.ENCODER_MEASUREMENT_PERIOD)),
+            StartupOrchestrator.rev(() -> leftShooter.getEncoder()
+                .setAverageDepth(ShooterConstants.Readiness.ENCODER_AVERAGE_DEPTH)));
+
+        orchestrator.configure("Shooter right wheel",
+            StartupOrchestrator.rev(() -> rightShooter.enableVoltageCompensation(ShooterConstants.Shooting.NOMINAL_VOLTAGE)),
+            StartupOrchestrator.rev(() -> rightPID.setP(ShooterConstants.Shooting.kP_SHOOTING)),
+            StartupOrchestrator.rev(() -> rightPID.setFF(0)),
+            StartupOrchestrator.rev(() -> rightPID.setOutputRange(-1, 1)),
+            StartupOrchestrator.rev(() -> rightShooter.getEncoder()
+                .setMeasurementPeriod(ShooterConstants.Readiness.ENCODER_MEASUREMENT_PERIOD)),
+            StartupOrchestrator.rev(() -> rightShooter.getEncoder()
+                .setAverageDepth(ShooterConstants.Readiness.ENCODER_AVERAGE_DEPTH)));
     }
     
     /**
      * Goes to provided pivot position using Motion Magic slot 0.
+     * Both sides follow the same profile, and the right side is corrected towards the left one every loop.
      * @param position for the pivot in degrees.
-     * @see {@link ShooterSubsystem#setRotorPositions()} to reset rotor positions for best accuracy.
      * @apiNote The position is clamped by {@link ShooterConstants#ANGLE_LIMITS}.
      */
     public void pivotGoToPosition(double position) {
         position = MathUtil.clamp(position, ShooterConstants.Pivot.ANGLE_LIMITS[0], ShooterConstants.Pivot.ANGLE_LIMITS[1]);
+        double rotations = Units.degreesToRotations(position);
 
-        MotionMagicVoltage control = motionMagicVoltage
-            // Select Slot 0 for Motion Magic (should be done by default).
+        // Select Slot 0 for Motion Magic (should be done by default).
+        leftPivotMotor.setControl(motionMagicVoltage.withSlot(0).withPosition(rotations));
+        rightPivotMotor.setControl(followerMotionMagicVoltage
             .withSlot(0)
-            .withPosition(Units.degreesToRotations(position * ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO));
+            .withPosition(rotations)
+            .withFeedForward(getSkewCorrection(getPivotSkew())));
+        this.pivotFollowingGoal = true;
+    }
 
-        rightPivotMotor.setControl(control);
-        leftPivotMotor.setControl(control);
+    /**
+     * Sets the Motion Magic constraints of both pivot Talons without waiting for them to apply.
+     * @param cruiseVelocity in pivot rps.
+     * @param acceleration in pivot rps/s.
+     * @param jerk in pivot rps/s^2.
+     */
+    public void setPivotMotionMagic(double cruiseVelocity, double acceleration, double jerk) {
+        MotionMagicConfigs configs = new MotionMagicConfigs()
+            .withMotionMagicCruiseVelocity(cruiseVelocity)
+            .withMotionMagicAcceleration(acceleration)
+            .withMotionMagicJerk(jerk);
+
+        if (!leftPivotMotor.getConfigurator().apply(configs, 0).isOK()
+            || !rightPivotMotor.getConfigurator().apply(configs, 0).isOK()) {
+            Telemetry.logMessage("Could not apply the pivot Motion Magic constraints", LoggingTags.ERROR);
+            return;
+        }
+        Telemetry.logMessage("Pivot Motion Magic cruise " + cruiseVelocity + " rps, acceleration " + acceleration
+            + " rps/s, jerk " + jerk + " rps/s^2", LoggingTags.INFO);
+    }
+
+    /**
+     * Applies a voltage to both pivot motors, stopping each at the soft limits.
+     * @param volts to apply. Positive is up.
+     */
+    private void setPivotVoltage(double volts) {
+        this.pivotFollowingGoal = false;
+        double[] positions = getCANcoderPositions();
+        leftPivotMotor.setControl(this.pivotVoltage.withOutput(isPastLimit(positions[0], volts) ? 0 : volts));
+        rightPivotMotor.setControl(this.pivotVoltage.withOutput(isPastLimit(positions[1], volts) ? 0 : volts));
+    }
+
+    /**
+     * Checks if moving a pivot in a direction would go past its soft limits.
+     * @param position of the pivot in degrees.
+     * @param direction to move in, positive is up.
+     * @return whether the pivot should not move.
+     */
+    private static boolean isPastLimit(double position, double direction) {
+        return (direction < 0 && position <= ShooterConstants.Pivot.ANGLE_LIMITS[0])
+            || (direction > 0 && position >= ShooterConstants.Pivot.ANGLE_LIMITS[1]);
     }
 
     /**
@@ -183,14 +412,14 @@ public class ShooterSubsystem extends SubsystemBase {
      * @param rightSpeed speed for the right motor. Positive is up.
      * @param override the soft limits.
      * @apiNote Will respect soft limits for each pivot at {@link ShooterConstants#PIVOT_ANGLE_LIMITS}.
+     * The sides are not corrected for skew, use {@link ShooterSubsystem#setPivotSpeed(double, boolean)} to move them together.
      */
     public void setPivotSpeed(double leftSpeed, double rightSpeed, boolean override) {
+        this.pivotFollowingGoal = false;
         if (!override) {
             double[] positions = getCANcoderPositions();
-            leftSpeed = (leftSpeed < 0 && positions[0] <= ShooterConstants.Pivot.ANGLE_LIMITS[0]) ||
-                (leftSpeed > 0 && positions[0] >= ShooterConstants.Pivot.ANGLE_LIMITS[1]) ? 0 : leftSpeed;
-            rightSpeed = (rightSpeed < 0 && positions[1] <= ShooterConstants.Pivot.ANGLE_LIMITS[0]) ||
-                (rightSpeed > 0 && positions[1] >= ShooterConstants.Pivot.ANGLE_LIMITS[1]) ? 0 : rightSpeed;
+            leftSpeed = isPastLimit(positions[0], leftSpeed) ? 0 : leftSpeed;
+            rightSpeed = isPastLimit(positions[1], rightSpeed) ? 0 : rightSpeed;
         }
         
         rightPivotMotor.set(rightSpeed);
@@ -199,12 +428,16 @@ public class ShooterSubsystem extends SubsystemBase {
 
     /**
      * Set the pivot speed for both motors (last resort) between -1.0 and 1.0.
+     * While moving, the right motor is corrected towards the left one.
      * @param speed for both motors. Positive is up.
      * @param override the soft limits.
      * @apiNote Will respect soft limits for each pivot at {@link ShooterConstants#PIVOT_ANGLE_LIMITS}.
      */
     public void setPivotSpeed(double speed, boolean override) {
-        setPivotSpeed(speed, speed, override);
+        double correction = speed == 0 ? 0 : MathUtil.clamp(
+            ShooterConstants.Pivot.SKEW_kP_DUTY * getPivotSkew(),
+            -ShooterConstants.Pivot.SKEW_MAX_DUTY_CORRECTION, ShooterConstants.Pivot.SKEW_MAX_DUTY_CORRECTION);
+        setPivotSpeed(speed, MathUtil.clamp(speed + correction, -1, 1), override);
     }
 
     /**
@@ -226,20 +459,39 @@ public class ShooterSubsystem extends SubsystemBase {
     }
     
     /**
-     * Sets the positions of the rotors.
-     * @param positions in degrees, left [0] and right [1].
-     * @apiNote Will multiply input values by the gear ratio.
+     * Gets how far the left side of the pivot is above the right side.
+     * @return the skew in degrees.
      */
-    public void setRotorPositions(double[] positions) {
-        leftPivotMotor.setPosition(Units.degreesToRotations(positions[0] * ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO));
-        rightPivotMotor.setPosition(Units.degreesToRotations(positions[1] * ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO));
+    public double getPivotSkew() {
+        return Units.rotationsToDegrees(
+            leftCANcoder.getPosition().getValueAsDouble() - rightCANcoder.getPosition().getValueAsDouble());
     }
-    
+
     /**
-     * Sets the positions of the rotors using the CANcoders.
+     * Calculates the voltage that moves the follower towards the leader.
+     * @param skew in degrees.
+     * @return the correction in volts.
      */
-    public void setRotorPositions() {
-        setRotorPositions(getCANcoderPositions());
+    private static double getSkewCorrection(double skew) {
+        return MathUtil.clamp(ShooterConstants.Pivot.SKEW_kP * skew,
+            -ShooterConstants.Pivot.SKEW_MAX_CORRECTION, ShooterConstants.Pivot.SKEW_MAX_CORRECTION);
+    }
+
+    /**
+     * Reports the skew between both sides of the pivot.
+     * @param skew in degrees.
+     */
+    private void monitorPivotSkew(double skew) {
+        this.pivotSkew.set(skew);
+
+        boolean skewed = Math.abs(skew) >= ShooterConstants.Pivot.SKEW_WARNING;
+        // Only log when crossing the threshold to avoid spamming the console.
+        if (skewed && !this.pivotSkewed) {
+            this.pivotSkewWarnings.increment();
+            Telemetry.logMessage("Shooter pivot is skewed by " + Telemetry.D_FORMAT.format(skew) + " degrees",
+                LoggingTags.WARNING);
+        }
+        this.pivotSkewed = skewed;
     }
 
     /**
@@ -247,26 +499,173 @@ public class ShooterSubsystem extends SubsystemBase {
      * @return velocities in RPM, left [0] and right [1].
      */
     public double[] getShootingVelocities() {
-        return new double[]{
-            leftShooter.getEncoder().getVelocity(),
-            rightShooter.getEncoder().getVelocity()
-        };
+        return getShootingVelocities(new double[2]);
+    }
+
+    /**
+     * Gets the velocities of the shooting motors without allocating.
+     * @param velocities array to fill in RPM, left [0] and right [1].
+     * @return the filled array.
+     */
+    public double[] getShootingVelocities(double[] velocities) {
+        if (this.leftFlywheelSimulation != null) {
+            velocities[0] = this.leftFlywheelSimulation.getAngularVelocityRPM();
+            velocities[1] = this.rightFlywheelSimulation.getAngularVelocityRPM();
+            return velocities;
+        }
+
+        velocities[0] = leftShooter.getEncoder().getVelocity();
+        velocities[1] = rightShooter.getEncoder().getVelocity();
+        return velocities;
     }
 
     /**
      * Sets the velocities of the shooting motors. 
-     * @param velocities between -1.0 and 1.0, left [0] and right [1].
+     * @param velocities in RPM, left [0] and right [1].
      */
     public void setShootingVelocities(double[] velocities) {
-        leftPID.setReference(velocities[0], ControlType.kVelocity);
-        rightPID.setReference(velocities[1],  ControlType.kVelocity);
+        this.velocityGoals[0] = velocities[0];
+        this.velocityGoals[1] = velocities[1];
+
+        boolean spinning = velocities[0] != 0 || velocities[1] != 0;
+        leftVelocityBoost.set(spinning);
+        rightVelocityBoost.set(spinning);
+
+        leftPID.setReference(velocities[0], ControlType.kVelocity, 0,
+            leftFeedforward.calculate(velocities[0] / 60), ArbFFUnits.kVoltage);
+        rightPID.setReference(velocities[1], ControlType.kVelocity, 0,
+            rightFeedforward.calculate(velocities[1] / 60), ArbFFUnits.kVoltage);
+    }
+
+    /**
+     * Creates a command that runs the quasistatic SysId test on both shooting wheels.
+     * @param direction of the test.
+     * @return the command.
+     * @apiNote Run it in test mode, where the position and velocity frames are fast.
+     */
+    public Command getShootingSysIdQuasistatic(SysIdRoutine.Direction direction) {
+        return this.shootingRoutine.quasistatic(direction);
+    }
+
+    /**
+     * Creates a command that runs the dynamic SysId test on both shooting wheels.
+     * @param direction of the test.
+     * @return the command.
+     * @apiNote Run it in test mode, where the position and velocity frames are fast.
+     */
+    public Command getShootingSysIdDynamic(SysIdRoutine.Direction direction) {
+        return this.shootingRoutine.dynamic(direction);
+    }
+
+    /**
+     * Creates a command that runs the quasistatic SysId test on both pivot motors.
+     * @param direction of the test.
+     * @return the command.
+     * @apiNote Run it in test mode, where the Talon signals are fast. Each test stops at the soft limits.
+     */
+    public Command getPivotSysIdQuasistatic(SysIdRoutine.Direction direction) {
+        return this.pivotRoutine.quasistatic(direction);
+    }
+
+    /**
+     * Creates a command that runs the dynamic SysId test on both pivot motors.
+     * @param direction of the test.
+     * @return the command.
+     * @apiNote Run it in test mode, where the Talon signals are fast. Each test stops at the soft limits.
+     */
+    public Command getPivotSysIdDynamic(SysIdRoutine.Direction direction) {
+        return this.pivotRoutine.dynamic(direction);
+    }
+
+    /**
+     * Logs the voltage, position and velocity of a pivot motor for SysId.
+     * @param log to write to.
+     * @param name of the motor in the log.
+     * @param motor to log.
+     */
+    private void logSysIdMotor(SysIdRoutineLog log, String name, TalonFX motor) {
+        StatusSignal<Double> voltage = motor.getMotorVoltage();
+        StatusSignal<Double> position = motor.getPosition();
+        StatusSignal<Double> velocity = motor.getVelocity();
+        BaseStatusSignal.refreshAll(voltage, position, velocity);
+
+        log.motor(name)
+            .voltage(this.sysIdVoltage.mut_replace(voltage.getValueAsDouble(), Volts))
+            .angularPosition(this.sysIdPosition.mut_replace(position.getValueAsDouble(), Rotations))
+            .angularVelocity(this.sysIdVelocity.mut_replace(velocity.getValueAsDouble(), RotationsPerSecond));
+    }
+
+    /**
+     * Logs the voltage, position and velocity of a shooting motor for SysId.
+     * @param log to write to.
+     * @param name of the motor in the log.
+     * @param motor to log.
+     */
+    private void logSysIdMotor(SysIdRoutineLog log, String name, CANSparkFlex motor) {
+        log.motor(name)
+            .voltage(this.sysIdVoltage.mut_replace(motor.getAppliedOutput() * motor.getBusVoltage(), Volts))
+            .angularPosition(this.sysIdPosition.mut_replace(motor.getEncoder().getPosition(), Rotations))
+            .angularVelocity(this.sysIdVelocity.mut_replace(motor.getEncoder().getVelocity(), RPM));
+    }
+
+    /**
+     * Creates the model of a shooting wheel from its characterized feedforward.
+     * @param kV in volts per rps.
+     * @param kA in volts per rps/s.
+     * @return the model.
+     */
+    private static FlywheelSim createFlywheelSimulation(double kV, double kA) {
+        // The model is in radians.
+        return new FlywheelSim(
+            LinearSystemId.identifyVelocitySystem(kV / (2 * Math.PI), kA / (2 * Math.PI)),
+            DCMotor.getNeoVortex(1),
+            1);
+    }
+
+    /**
+     * Runs a shooting wheel's velocity loop like its Spark would and steps its model.
+     * @param simulation of the wheel.
+     * @param feedforward of the wheel.
+     * @param goal in RPM.
+     * @param dt in seconds.
+     */
+    private static void simulateFlywheel(FlywheelSim simulation, SimpleMotorFeedforward feedforward, double goal, double dt) {
+        double error = goal - simulation.getAngularVelocityRPM();
+        double volts = feedforward.calculate(goal / 60)
+            + ShooterConstants.Shooting.kP_SHOOTING * error * ShooterConstants.Shooting.NOMINAL_VOLTAGE;
+        simulation.setInputVoltage(MathUtil.clamp(volts,
+            -ShooterConstants.Shooting.NOMINAL_VOLTAGE, ShooterConstants.Shooting.NOMINAL_VOLTAGE));
+        simulation.update(dt);
+    }
+
+    /**
+     * Sets the simulated sensors of one side of the pivot.
+     * @param motor state of the Talon.
+     * @param cancoder state of the CANcoder.
+     * @param position of the pivot in rotations.
+     * @param velocity of the pivot in rps.
+     */
+    private static void simulatePivotSide(TalonFXSimState motor, CANcoderSimState cancoder, double position, double velocity) {
+        motor.setRawRotorPosition(position * ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO);
+        motor.setRotorVelocity(velocity * ShooterConstants.Pivot.MOTOR_TO_PIVOT_RATIO);
+        cancoder.setRawPosition(position);
+        cancoder.setVelocity(velocity);
+    }
+
+    /**
+     * Describes the gains of a feedforward for logging.
+     * @param feedforward to describe.
+     * @return the description.
+     */
+    private static String describeFeedforward(SimpleMotorFeedforward feedforward) {
+        return "kS " + feedforward.ks + " kV " + feedforward.kv + " kA " + feedforward.ka;
     }
 
     /**
      * Stops the shooting motors.
      */
     public void setShootingVelocities() {
-        setShootingVelocities(new double[]{0, 0});
+        setShootingVelocities(STOPPED);
     }
 
     /**
@@ -286,25 +685,65 @@ public class ShooterSubsystem extends SubsystemBase {
     }
 
     /**
-     * Limits the publishing of CAN messages to the bus.
+     * Declares the CAN messages this subsystem needs to the {@link StatusFrameAllocator}.
      */
     private void setStatusFrames() {
-        // leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        // leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 20);
-        leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        // leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus6, 200);
-        // leftShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-        
-        // rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        // rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 20);
-        rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        // rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 50);
-        rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        // rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus6, 200);
-        // rightShooter.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
+        StatusFrameAllocator allocator = StatusFrameAllocator.getInstance();
+
+        // Velocity is only read quickly while a shot is spinning up, see setShootingVelocities().
+        // Test mode reads position and velocity quickly for SysId.
+        SparkDevice left = allocator.spark("Shooter left wheel", leftShooter)
+            .need(PeriodicFrame.kStatus0, 10, 100)
+            .need(PeriodicFrame.kStatus1, 100, 200)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 250)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus1, 20)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus2, 20);
+        SparkDevice right = allocator.spark("Shooter right wheel", rightShooter)
+            .need(PeriodicFrame.kStatus0, 10, 100)
+            .need(PeriodicFrame.kStatus1, 100, 200)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 250)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus1, 20)
+            .need(RobotMode.TEST, PeriodicFrame.kStatus2, 20);
+
+        this.leftVelocityBoost = left.boost(PeriodicFrame.kStatus1, 20);
+        this.rightVelocityBoost = right.boost(PeriodicFrame.kStatus1, 20);
+
+        // The pivots close the loop on their CANcoders, so Talon signals are only read over the bus for SysId.
+        allocator.phoenix("Shooter left pivot", leftPivotMotor)
+            .need(RobotMode.TEST, leftPivotMotor.getMotorVoltage(), 10)
+            .need(RobotMode.TEST, leftPivotMotor.getPosition(), 10)
+            .need(RobotMode.TEST, leftPivotMotor.getVelocity(), 10);
+        allocator.phoenix("Shooter right pivot", rightPivotMotor)
+            .need(RobotMode.TEST, rightPivotMotor.getMotorVoltage(), 10)
+            .need(RobotMode.TEST, rightPivotMotor.getPosition(), 10)
+            .need(RobotMode.TEST, rightPivotMotor.getVelocity(), 10);
+        // The Talons use these frames as their feedback, so they cannot be slowed down while enabled.
+        allocator.phoenix("Shooter left CANcoder", leftCANcoder)
+            .need(leftCANcoder.getPosition(), 10)
+            .need(leftCANcoder.getVelocity(), 10)
+            .need(RobotMode.DISABLED, leftCANcoder.getPosition(), 100)
+            .need(RobotMode.DISABLED, leftCANcoder.getVelocity(), 0);
+        allocator.phoenix("Shooter right CANcoder", rightCANcoder)
+            .need(rightCANcoder.getPosition(), 10)
+            .need(rightCANcoder.getVelocity(), 10)
+            .need(RobotMode.DISABLED, rightCANcoder.getPosition(), 100)
+            .need(RobotMode.DISABLED, rightCANcoder.getVelocity(), 0);
+    }
+
+    /**
+     * Adds the devices of this subsystem to the {@link DeviceHealthMonitor}.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor monitor = DeviceHealthMonitor.getInstance();
+        monitor.spark("Shooter left wheel", leftShooter);
+        monitor.spark("Shooter right wheel", rightShooter);
+        monitor.phoenix("Shooter left pivot", leftPivotMotor,
+            leftPivotMotor.getVersion(), leftPivotMotor.getStickyFaultField(), leftPivotMotor.getDeviceTemp());
+        monitor.phoenix("Shooter right pivot", rightPivotMotor,
+            rightPivotMotor.getVersion(), rightPivotMotor.getStickyFaultField(), rightPivotMotor.getDeviceTemp());
+        monitor.phoenix("Shooter left CANcoder", leftCANcoder,
+            leftCANcoder.getVersion(), leftCANcoder.getStickyFaultField(), null);
+        monitor.phoenix("Shooter right CANcoder", rightCANcoder,
+            rightCANcoder.getVersion(), rightCANcoder.getStickyFaultField(), null);
     }
 }
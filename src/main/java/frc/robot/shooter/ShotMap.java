@@ -0,0 +1,226 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.shooter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.constants.Positions;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.ShooterConstants;
+import frc.robot.swerve.SwerveSubsystem;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A table of SPEAKER shots indexed by the horizontal distance to the SPEAKER.
+ * <ul>
+ * <li>Entries are loaded from {@link ShooterConstants.ShotMap#FILE} in the deploy directory,
+ * falling back to {@link ShooterConstants.ShotMap#FALLBACK} if it cannot be read.</li>
+ * <li>Queries interpolate linearly between the two closest entries with a binary search
+ * over primitive arrays, so they do not allocate.</li>
+ * <li>Calibration entries can be added on the field, they are logged as CSV lines to copy into the file.</li>
+ * </ul>
+ */
+public class ShotMap {
+    // Thread-safe singleton design pattern.
+    private static volatile ShotMap instance;
+    private static Object mutex = new Object();
+
+    public static ShotMap getInstance() {
+        ShotMap result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new ShotMap();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Checks if the map was built, without reading the file.
+     * @return whether {@link ShotMap#getInstance()} returns without blocking.
+     * @apiNote The map is built by the "Shot map" deferred phase of the {@link frc.robot.utilities.BootProfiler}.
+     */
+    public static boolean isLoaded() {
+        return instance != null;
+    }
+
+    // Sorted by distance, the same index in each array is one entry.
+    private double[] distances = new double[0];
+    private double[] angles = new double[0];
+    private double[] rpms = new double[0];
+
+    private ShotMap() {
+        if (!load(Filesystem.getDeployDirectory().toPath().resolve(ShooterConstants.ShotMap.FILE))) {
+            for (double[] entry : ShooterConstants.ShotMap.FALLBACK) {
+                put(entry[0], entry[1], entry[2]);
+            }
+        }
+    }
+
+    /**
+     * Gets the pivot angle for a shot.
+     * @param distance horizontal distance to the SPEAKER in meters.
+     * @return the pivot angle in degrees.
+     */
+    public synchronized double getAngle(double distance) {
+        return interpolate(this.angles, distance);
+    }
+
+    /**
+     * Gets the shooting wheel speed for a shot.
+     * @param distance horizontal distance to the SPEAKER in meters.
+     * @return the speed in RPM.
+     */
+    public synchronized double getRPM(double distance) {
+        return interpolate(this.rpms, distance);
+    }
+
+    /**
+     * Adds a calibration entry, replacing the entry at the same distance if there is one.
+     * @param distance horizontal distance to the SPEAKER in meters.
+     * @param angle of the pivot in degrees.
+     * @param rpm of the shooting wheels.
+     */
+    public synchronized void addCalibration(double distance, double angle, double rpm) {
+        put(distance, angle, rpm);
+        Telemetry.logMessage("Shot map calibration " + Telemetry.D_FORMAT.format(distance) + ","
+            + Telemetry.D_FORMAT.format(angle) + "," + Telemetry.D_FORMAT.format(rpm), LoggingTags.INFO);
+    }
+
+    /**
+     * Adds a calibration entry from the current position of the robot, pivot and shooting wheels.
+     * @apiNote Use this after a shot has been tuned by hand with {@link ManuallyPivotShooterCommand}.
+     */
+    public void calibrateCurrentShot() {
+        double distance = getSpeakerDistance();
+        if (Double.isNaN(distance)) {
+            Telemetry.logMessage("DriverStation alliance is not present", LoggingTags.ERROR);
+            return;
+        }
+
+        double[] pivotPositions = ShooterSubsystem.getInstance().getCANcoderPositions();
+        double[] velocities = ShooterSubsystem.getInstance().getShootingVelocities();
+        addCalibration(distance, (pivotPositions[0] + pivotPositions[1]) / 2,
+            (Math.abs(velocities[0]) + Math.abs(velocities[1])) / 2);
+    }
+
+    /**
+     * Calculates the horizontal distance from the robot to its alliance's SPEAKER.
+     * @return the distance in meters, NaN if the alliance is not present.
+     */
+    public static double getSpeakerDistance() {
+        if (!DriverStation.getAlliance().isPresent()) return Double.NaN;
+
+        Translation3d point = Positions.SPEAKER_TARGETS.get(DriverStation.getAlliance().get());
+        Pose2d botpose = SwerveSubsystem.getInstance().getPose();
+        return Math.hypot(point.getX() - botpose.getX(), point.getY() - botpose.getY());
+    }
+
+    /**
+     * Reads the entries from a CSV file with a header and {@code distance,angle,rpm} lines.
+     * @param path of the file.
+     * @return whether any entry was read.
+     */
+    private boolean load(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        }
+        catch (IOException error) {
+            Telemetry.logMessage("Could not read shot map " + path + ", using fallback: " + error, LoggingTags.ERROR);
+            return false;
+        }
+
+        // The first line is the header.
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] values = line.split(",");
+            try {
+                put(Double.parseDouble(values[0].strip()), Double.parseDouble(values[1].strip()),
+                    Double.parseDouble(values[2].strip()));
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException error) {
+                Telemetry.logMessage("Skipping shot map line " + (i + 1) + " \"" + line + "\"", LoggingTags.WARNING);
+            }
+        }
+
+        if (this.distances.length == 0) {
+            Telemetry.logMessage("Shot map " + path + " has no entries, using fallback", LoggingTags.ERROR);
+            return false;
+        }
+        Telemetry.logMessage("Loaded " + this.distances.length + " shot map entries", LoggingTags.INFO);
+        return true;
+    }
+
+    /**
+     * Inserts an entry in distance order, replacing the entry at the same distance if there is one.
+     * @param distance in meters.
+     * @param angle in degrees.
+     * @param rpm of the shooting wheels.
+     */
+    private void put(double distance, double angle, double rpm) {
+        int index = Arrays.binarySearch(this.distances, distance);
+        if (index >= 0) {
+            this.angles[index] = angle;
+            this.rpms[index] = rpm;
+            return;
+        }
+
+        // Entries are only added at startup or when calibrating, so copying the arrays is fine.
+        index = -index - 1;
+        this.distances = insert(this.distances, index, distance);
+        this.angles = insert(this.angles, index, angle);
+        this.rpms = insert(this.rpms, index, rpm);
+    }
+
+    /**
+     * Interpolates a column of the table, holding the first or last value outside of the table.
+     * @param values column to interpolate.
+     * @param distance in meters.
+     * @return the interpolated value, NaN if the table is empty.
+     */
+    private double interpolate(double[] values, double distance) {
+        int size = this.distances.length;
+        if (size == 0) return Double.NaN;
+        if (distance <= this.distances[0]) return values[0];
+        if (distance >= this.distances[size - 1]) return values[size - 1];
+
+        int index = Arrays.binarySearch(this.distances, distance);
+        if (index >= 0) return values[index];
+
+        // The insertion point is the first entry further than the distance.
+        int upper = -index - 1;
+        int lower = upper - 1;
+        double t = (distance - this.distances[lower]) / (this.distances[upper] - this.distances[lower]);
+        return values[lower] + (values[upper] - values[lower]) * t;
+    }
+
+    /**
+     * Copies an array with a value inserted.
+     * @param array to copy.
+     * @param index of the new value.
+     * @param value to insert.
+     * @return the new array.
+     */
+    private static double[] insert(double[] array, int index, double value) {
+        double[] result = new double[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.shooter;
+
+/**
+ * The SPEAKER shot solved by the {@link ShotSolver} for the current loop.
+ * <p>There is a single instance that is filled in place once per loop, so the shooter commands and telemetry
+ * read the same setpoints without solving again or allocating.</p>
+ * @apiNote Values from an invalid solution are NaN, check {@link ShotSolution#isValid()} first.
+ */
+public class ShotSolution {
+    private boolean valid = false;
+    /** Horizontal distance to the virtual target in meters. */
+    private double distance = Double.NaN;
+    /** Pivot angle in degrees. */
+    private double angle = Double.NaN;
+    /** Shooting wheel speed in RPM. */
+    private double rpm = Double.NaN;
+    /** Robot heading that points the shooter at the virtual target, in degrees. */
+    private double heading = Double.NaN;
+    /** Time of flight of the note in seconds. */
+    private double timeOfFlight = Double.NaN;
+    /** FPGA timestamp of the solution in seconds. */
+    private double timestamp = 0;
+
+    ShotSolution() {}
+
+    /**
+     * Whether a shot could be solved, false if the alliance is not present.
+     * @return valid.
+     */
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    /**
+     * Gets the horizontal distance to the virtual target.
+     * @return the distance in meters.
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Gets the pivot angle.
+     * @return the angle in degrees.
+     */
+    public double getAngle() {
+        return this.angle;
+    }
+
+    /**
+     * Gets the shooting wheel speed.
+     * @return the speed in RPM.
+     */
+    public double getRPM() {
+        return this.rpm;
+    }
+
+    /**
+     * Gets the robot heading that points the shooter at the virtual target.
+     * @return the heading in degrees, in the same frame as the robot's pose.
+     */
+    public double getHeading() {
+        return this.heading;
+    }
+
+    /**
+     * Gets the time of flight of the note.
+     * @return the time in seconds.
+     */
+    public double getTimeOfFlight() {
+        return this.timeOfFlight;
+    }
+
+    /**
+     * Gets when the shot was solved.
+     * @return the FPGA timestamp in seconds.
+     */
+    public double getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Stores a solved shot.
+     * @param distance in meters.
+     * @param angle in degrees.
+     * @param rpm of the shooting wheels.
+     * @param heading in degrees.
+     * @param timeOfFlight in seconds.
+     * @param timestamp in seconds.
+     */
+    void set(double distance, double angle, double rpm, double heading, double timeOfFlight, double timestamp) {
+        this.valid = true;
+        this.distance = distance;
+        this.angle = angle;
+        this.rpm = rpm;
+        this.heading = heading;
+        this.timeOfFlight = timeOfFlight;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Marks the shot as unsolvable.
+     * @param timestamp in seconds.
+     */
+    void invalidate(double timestamp) {
+        this.valid = false;
+        this.distance = Double.NaN;
+        this.angle = Double.NaN;
+        this.rpm = Double.NaN;
+        this.heading = Double.NaN;
+        this.timeOfFlight = Double.NaN;
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.shooter;
+
+import java.util.Optional;
+
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.constants.Positions;
+import frc.robot.constants.PhysicalConstants.ShooterConstants;
+import frc.robot.swerve.SwerveSubsystem;
+
+/**
+ * A class that solves SPEAKER shots while the robot is moving.
+ * <p>The note keeps the robot's velocity after it leaves the shooter, so the shot is aimed at a virtual target
+ * offset by the distance the robot travels during the note's time of flight. The time of flight depends on
+ * the shot, so the virtual target is refined over a few iterations of the {@link ShotMap}.</p>
+ * While aiming, the heading can also override the rotation target of PathPlanner paths so autos can shoot without
+ * stopping, once {@link ShooterConstants.ShotSolver#ROTATION_OVERRIDE_ENABLED} is turned on.
+ * @apiNote The shot is solved once per loop into a single {@link ShotSolution} that the shooter commands
+ * and telemetry read, see {@link ShotSolver#update()}.
+ */
+public class ShotSolver {
+    // Thread-safe singleton design pattern.
+    private static volatile ShotSolver instance;
+    private static Object mutex = new Object();
+
+    public static ShotSolver getInstance() {
+        ShotSolver result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new ShotSolver();
+            }
+        }
+        return instance;
+    }
+
+    private final ShotSolution solution = new ShotSolution();
+
+    private volatile boolean aiming = false;
+
+    private ShotSolver() {
+        PPHolonomicDriveController.setRotationTargetOverride(this::getRotationTargetOverride);
+    }
+
+    /**
+     * Solves the shot from the current pose and velocity of the robot into the {@link ShotSolution}.
+     * @apiNote This should be called once every loop, before the commands run.
+     * The solution stays invalid until the deferred phase has built the {@link ShotMap}.
+     */
+    public void update() {
+        double timestamp = Timer.getFPGATimestamp();
+        Optional<Alliance> alliance = DriverStation.getAlliance();
+        if (!alliance.isPresent() || !ShotMap.isLoaded()) {
+            this.solution.invalidate(timestamp);
+            return;
+        }
+
+        Translation3d target = Positions.SPEAKER_TARGETS.get(alliance.get());
+        Pose2d pose = SwerveSubsystem.getInstance().getPose();
+        ChassisSpeeds speeds = SwerveSubsystem.getInstance().getChassisSpeeds();
+
+        // Rotates the robot-relative velocity to the field.
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        double fieldVX = speeds.vxMetersPerSecond * cos - speeds.vyMetersPerSecond * sin;
+        double fieldVY = speeds.vxMetersPerSecond * sin + speeds.vyMetersPerSecond * cos;
+
+        double dx = target.getX() - pose.getX();
+        double dy = target.getY() - pose.getY();
+        double distance = Double.NaN;
+        double angle = Double.NaN;
+        double rpm = Double.NaN;
+        double timeOfFlight = 0;
+        for (int i = 0; i < ShooterConstants.ShotSolver.ITERATIONS; i++) {
+            dx = target.getX() - fieldVX * timeOfFlight - pose.getX();
+            dy = target.getY() - fieldVY * timeOfFlight - pose.getY();
+            distance = Math.hypot(dx, dy);
+            angle = ShotMap.getInstance().getAngle(distance);
+            rpm = ShotMap.getInstance().getRPM(distance);
+
+            double previousTimeOfFlight = timeOfFlight;
+            timeOfFlight = distance / (getExitSpeed(rpm) * Math.cos(Units.degreesToRadians(angle)));
+            if (Math.abs(timeOfFlight - previousTimeOfFlight) <= ShooterConstants.ShotSolver.TIME_OF_FLIGHT_TOLERANCE) {
+                break;
+            }
+        }
+
+        double heading = Units.radiansToDegrees(Math.atan2(dy, dx)) + ShooterConstants.ShotSolver.SHOOTER_HEADING_OFFSET;
+        this.solution.set(distance, angle, rpm, heading, timeOfFlight, timestamp);
+    }
+
+    /**
+     * Gets the shot solved this loop.
+     * @return the shared solution, it is updated in place so it should not be stored between loops.
+     */
+    public ShotSolution getSolution() {
+        return this.solution;
+    }
+
+    /**
+     * Sets whether PathPlanner paths should turn the robot towards the solved heading.
+     * @param aiming whether to override the rotation target.
+     */
+    public void setAiming(boolean aiming) {
+        this.aiming = aiming;
+    }
+
+    /**
+     * Gets the rotation target for PathPlanner while aiming.
+     * @return the solved heading, empty if the override is disabled, if not aiming or if no shot was solved this loop.
+     */
+    private Optional<Rotation2d> getRotationTargetOverride() {
+        if (!ShooterConstants.ShotSolver.ROTATION_OVERRIDE_ENABLED || !this.aiming || !this.solution.isValid()) {
+            return Optional.empty();
+        }
+        return Optional.of(Rotation2d.fromDegrees(this.solution.getHeading()));
+    }
+
+    /**
+     * Estimates the speed of the note when it leaves the shooter.
+     * @param rpm of the shooting wheels.
+     * @return the speed in meters per second.
+     */
+    private static double getExitSpeed(double rpm) {
+        return rpm / 60 * Math.PI * ShooterConstants.ShotSolver.WHEEL_DIAMETER * ShooterConstants.ShotSolver.EXIT_SPEED_RATIO;
+    }
+}
@@ -4,26 +4,50 @@
 
 package frc.robot.shooter;
 
-import java.util.Optional;
-import java.util.OptionalInt;
-
 import com.revrobotics.CANSparkFlex;
+import com.revrobotics.RelativeEncoder;
 
 import au.grapplerobotics.LaserCan;
 
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
+import frc.robot.constants.PhysicalConstants.NoteDetectionConstants;
+import frc.robot.constants.PhysicalConstants.SimulationConstants;
 import frc.robot.constants.PhysicalConstants.SterilizerConstants;
-import frc.robot.constants.PrimeNumbers;
+import frc.robot.intake.IntakeSubsystem;
 import frc.robot.lights.LEDSubsystem;
 import frc.robot.lights.LEDSubsystem.LightState;
+import frc.robot.simulation.NoteSimulation;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.RollerLoadDetector;
 
 /**
  * A subsytem that moves the sterilizer and queries laser data.
+ * <p>The note is indexed by a {@link NoteState} machine on debounced edges of both lasers, sampled every
+ * {@link SterilizerConstants#INDEXER_PERIOD} so the motors stop on the edge instead of on the next loop.</p>
  */
 public class SterilizerSubsystem extends SubsystemBase {
+    /** Where the note is in the sterilizer, in the order it travels. */
+    public static enum NoteState {
+        /** No laser sees a note. */
+        EMPTY,
+        /** The note reached the back laser and is travelling to the front one. */
+        ENTERING,
+        /** The front laser sees the note, it is ready to shoot. */
+        READY,
+        /** The note left the back laser towards the shooting wheels, only the front laser sees it. */
+        EXITING
+    }
+
     // Thread-safe singleton design pattern.
     private static volatile SterilizerSubsystem instance;
     private static Object mutex = new Object();
@@ -40,69 +64,308 @@ public class SterilizerSubsystem extends SubsystemBase {
     }
 
     private CANSparkFlex feederMotor = new CANSparkFlex(SterilizerConstants.NEO_MOTOR_ID, MotorType.kBrushless);
+    private RelativeEncoder feederEncoder = feederMotor.getEncoder();
     private LaserCan backLaser = new LaserCan(SterilizerConstants.BACK_LASER_ID);
     private LaserCan frontLaser = new LaserCan(SterilizerConstants.FRONT_LASER_ID);
+    private LaserSample backSample = new LaserSample();
+    private LaserSample frontSample = new LaserSample();
+    private LaserEdge backEdge = new LaserEdge(this.backSample, false);
+    /** The ready edge is accepted on the first measurement so the motors stop on it. */
+    private LaserEdge frontEdge = new LaserEdge(this.frontSample, true);
+    /** In simulation the lasers are read from the {@link NoteSimulation}. */
+    private final boolean simulated = RobotBase.isSimulation();
+
+    private NoteState noteState = NoteState.EMPTY;
+    /** Whether the indexer drives the feeder until the note is {@link NoteState#READY}. */
+    private boolean indexing = false;
+    /** Ran once on the {@link NoteState#READY} edge while indexing, null if there is nothing to stop. */
+    private Runnable onReady;
+    // FPGA timestamps of the last edges in seconds.
+    private double entryTimestamp = 0;
+    private double readyTimestamp = 0;
+    private double exitTimestamp = 0;
+
+    /**
+     * Detects a note gripped by the feeder, not fed in simulation where there is no current.
+     * @implNote Updated every loop like its status frame, not every {@link SterilizerConstants#INDEXER_PERIOD}.
+     */
+    private final RollerLoadDetector feederLoad = new RollerLoadDetector("Feeder", TimedRobot.kDefaultPeriod,
+        NoteDetectionConstants.FEEDER_LOAD_CURRENT, NoteDetectionConstants.FEEDER_VELOCITY_DROP);
+    /** Confidence that the robot holds a note, between 0 and 1. */
+    private double noteConfidence = 0;
+
+    private final Metrics.Gauge noteConfidenceGauge = Metrics.gauge("Sterilizer/NoteConfidence");
+    private final Metrics.Gauge noteStateGauge = Metrics.gauge("Sterilizer/NoteState");
+    private final Metrics.Histogram travelTime = Metrics.histogram("Sterilizer/TravelTime");
 
     /**
      * Creates a new SterilizerSubsystem.
-     * @apiNote LaserCAN should be configured in the GrappleHook app.
+     * @apiNote The LaserCan IDs are set in the GrappleHook app, their ranging is configured here.
      */
     public SterilizerSubsystem() {
         super("SterilizerSubsystem");
 
+        configureLasers();
         setStatusFrames();
+        registerHealthChecks();
     }
 
     @Override
     public void periodic() {
+        if (!this.simulated) {
+            // Only an empty sterilizer seen by valid lasers teaches the detector the free running feeder.
+            this.feederLoad.update(feederMotor.getOutputCurrent(), feederEncoder.getVelocity(),
+                this.noteState == NoteState.EMPTY && isLaserValid());
+        }
+
+        this.noteStateGauge.set(this.noteState.ordinal());
+        this.noteConfidenceGauge.set(this.noteConfidence);
         LEDSubsystem.getInstance().setLightState(
             (hasNote() ? LightState.HOLDING_NOTE : LightState.OFF), false);
     }
-    
+
     /**
-     * Gets the distances measured by each laser.
-     * @return measurements, back laser [0] and front laser [1].
-     * @apiNote empty optional when the measurement is invalid.
-     */
-    public OptionalInt[] getLaserMeasurements() {
-        LaserCan.Measurement backMm = backLaser.getMeasurement();
-        LaserCan.Measurement frontMm = frontLaser.getMeasurement();
-        
-        OptionalInt[] measurements = new OptionalInt[]{
-            backMm != null && backMm.status == LaserCan.LASERCAN_STATUS_VALID_MEASUREMENT ?
-                OptionalInt.of(backMm.distance_mm) : OptionalInt.empty(),
-            frontMm != null && frontMm.status == LaserCan.LASERCAN_STATUS_VALID_MEASUREMENT ?
-                OptionalInt.of(frontMm.distance_mm) : OptionalInt.empty()
-        };
+     * Samples the lasers and moves the note through the {@link NoteState}s.
+     * @apiNote Registered with {@code addPeriodic} every {@link SterilizerConstants#INDEXER_PERIOD},
+     * it runs on the main thread between loops so commands never see a half updated state.
+     */
+    public void updateIndexer() {
+        if (this.simulated) {
+            NoteSimulation note = NoteSimulation.getInstance();
+            this.backSample.update(LaserCan.LASERCAN_STATUS_VALID_MEASUREMENT,
+                note.getLaserDistance(SimulationConstants.Note.BACK_LASER_POSITION));
+            this.frontSample.update(LaserCan.LASERCAN_STATUS_VALID_MEASUREMENT,
+                note.getLaserDistance(SimulationConstants.Note.FRONT_LASER_POSITION));
+        }
+        else {
+            this.backSample.update(backLaser.getMeasurement());
+            this.frontSample.update(frontLaser.getMeasurement());
+        }
+
+        double timestamp = Timer.getFPGATimestamp();
+        boolean backEdge = this.backEdge.update(timestamp);
+        boolean frontEdge = this.frontEdge.update(timestamp);
+        updateNoteConfidence();
+
+        // A glitching laser cannot index the note, the feeder gripping it is enough to stop collecting.
+        if (this.indexing && !isLaserValid() && this.feederLoad.isLoaded()) {
+            setNoteState(NoteState.READY, timestamp);
+            return;
+        }
+        if (!backEdge && !frontEdge) return;
+
+        boolean back = this.backEdge.hasNote();
+        boolean front = this.frontEdge.hasNote();
+        NoteState next;
+        if (front) {
+            next = back || this.noteState == NoteState.EMPTY || this.noteState == NoteState.ENTERING
+                ? NoteState.READY : NoteState.EXITING;
+        }
+        else {
+            next = back ? NoteState.ENTERING : NoteState.EMPTY;
+        }
+        setNoteState(next, (frontEdge ? this.frontEdge : this.backEdge).getEdgeTimestamp());
+    }
+
+    /**
+     * Fuses the lasers and the rollers into one confidence that the robot holds a note.
+     * <p>Each valid laser votes with the {@link NoteState}, which holds through invalid measurements, and each
+     * active roller votes with its load. The confidence holds when no source can vote.</p>
+     */
+    private void updateNoteConfidence() {
+        double weight = 0;
+        double votes = 0;
+
+        int validLasers = (this.backSample.isValid() ? 1 : 0) + (this.frontSample.isValid() ? 1 : 0);
+        weight += validLasers * NoteDetectionConstants.LASER_WEIGHT;
+        votes += hasNote() ? validLasers * NoteDetectionConstants.LASER_WEIGHT : 0;
+
+        if (this.feederLoad.isActive()) {
+            weight += NoteDetectionConstants.FEEDER_WEIGHT;
+            votes += this.feederLoad.isLoaded() ? NoteDetectionConstants.FEEDER_WEIGHT : 0;
+        }
+        RollerLoadDetector intakeLoad = IntakeSubsystem.getInstance().getIntakeLoad();
+        if (intakeLoad.isActive()) {
+            weight += NoteDetectionConstants.INTAKE_WEIGHT;
+            votes += intakeLoad.isLoaded() ? NoteDetectionConstants.INTAKE_WEIGHT : 0;
+        }
+
+        if (weight > 0) {
+            this.noteConfidence = votes / weight;
+        }
+    }
+
+    /**
+     * Starts a transition and runs the actions of its edge.
+     * @param next state of the note.
+     * @param timestamp of the edge that caused the transition in seconds.
+     */
+    private void setNoteState(NoteState next, double timestamp) {
+        NoteState previous = this.noteState;
+        if (next == previous) return;
+        this.noteState = next;
+
+        switch (next) {
+            case ENTERING:
+                if (previous == NoteState.EMPTY) {
+                    this.entryTimestamp = timestamp;
+                }
+                break;
+            case READY:
+                if (previous == NoteState.EMPTY || previous == NoteState.ENTERING) {
+                    this.readyTimestamp = timestamp;
+                    if (previous == NoteState.ENTERING) {
+                        this.travelTime.record(this.readyTimestamp - this.entryTimestamp);
+                    }
+                }
+                break;
+            case EMPTY:
+                // Only a note leaving through the front counts as an exit, not one ejected through the intake.
+                if (previous == NoteState.EXITING || previous == NoteState.READY) {
+                    this.exitTimestamp = timestamp;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (this.indexing) {
+            driveIndexing();
+        }
+    }
+
+    /**
+     * Sets the feeder for the current state while indexing, stopping everything on the ready edge.
+     */
+    private void driveIndexing() {
+        switch (this.noteState) {
+            case EMPTY:
+                setSpeed(SterilizerConstants.FEEDING_SPEED);
+                break;
+            case ENTERING:
+                setSpeed(SterilizerConstants.ADJUSTING_SPEED);
+                break;
+            default:
+                setSpeed();
+                this.indexing = false;
+                if (this.onReady != null) {
+                    this.onReady.run();
+                    this.onReady = null;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Feeds the note in until it is {@link NoteState#READY} and stops the sterilizer on that edge.
+     * @param onReady ran once on the ready edge, to stop the motors feeding the sterilizer. Can be null.
+     * @apiNote Runs {@code onReady} immediately if the note is already in.
+     */
+    public void startIndexing(Runnable onReady) {
+        this.indexing = true;
+        this.onReady = onReady;
+        driveIndexing();
+    }
+
+    /**
+     * Stops indexing and the sterilizer, without running the ready action.
+     */
+    public void stopIndexing() {
+        this.indexing = false;
+        this.onReady = null;
+        setSpeed();
+    }
 
-        return measurements;
+    /**
+     * Gets where the note is in the sterilizer.
+     * @return the state of the note.
+     */
+    public NoteState getNoteState() {
+        return this.noteState;
     }
 
     /**
-     * Checks the distances of {@link SterilizerSubsystem#getLaserMeasurements()} against the measurements for a note.
-     * @return has notes, back laser [0] and front laser [1].
-     * @apiNote empty optional when the measurement is invalid.
+     * Checks if the note reached the front laser.
+     * @return if the {@link NoteState} is {@link NoteState#READY} or {@link NoteState#EXITING}.
      */
-    public Optional<Boolean>[] getHasNotes() {
-        OptionalInt[] measurements = getLaserMeasurements();
+    public boolean isNoteIndexed() {
+        return this.noteState == NoteState.READY || this.noteState == NoteState.EXITING;
+    }
 
-        @SuppressWarnings("unchecked")
-        Optional<Boolean>[] sketchy = (Optional<Boolean>[]) new Optional<?>[2];
-        sketchy[0] = measurements[0].isPresent()
-            ? Optional.ofNullable(measurements[0].getAsInt() <= SterilizerConstants.NOTE_DISTANCE_LASER) : Optional.empty();
-        sketchy[1] = measurements[1].isPresent()
-            ? Optional.ofNullable(measurements[1].getAsInt() <= SterilizerConstants.NOTE_DISTANCE_LASER) : Optional.empty();
-        return sketchy;
+    /**
+     * Gets when the note last reached the back laser from an empty sterilizer.
+     * @return the FPGA timestamp of the edge in seconds.
+     */
+    public double getEntryTimestamp() {
+        return this.entryTimestamp;
     }
 
     /**
-     * Checks if either of {@link SterilizerSubsystem#getHasNotes()} is true.
-     * @return if either laser sees a note.
-     * @apiNote Treats invalid measurements as {@code false}.
+     * Gets when the note last became {@link NoteState#READY} from the intake.
+     * @return the FPGA timestamp of the edge in seconds.
+     */
+    public double getReadyTimestamp() {
+        return this.readyTimestamp;
+    }
+
+    /**
+     * Gets when the note last left through the front laser.
+     * @return the FPGA timestamp of the edge in seconds.
+     */
+    public double getExitTimestamp() {
+        return this.exitTimestamp;
+    }
+
+    /**
+     * Gets the confidence that the robot holds a note, fused from the lasers, the feeder and the intake.
+     * @return the confidence between 0 and 1.
+     * @see {@link NoteDetectionConstants#CONFIDENCE_THRESHOLD} to decide if there is a note.
+     */
+    public double getNoteConfidence() {
+        return this.noteConfidence;
+    }
+
+    /**
+     * Checks if the feeder grips a note.
+     * @return whether the feeder is loaded, {@code false} in simulation.
+     */
+    public boolean isFeederLoaded() {
+        return this.feederLoad.isLoaded();
+    }
+
+    /**
+     * Checks if both lasers currently have valid measurements.
+     * @return whether the {@link NoteState} follows the lasers.
+     * @apiNote The state holds while a laser is invalid.
+     */
+    public boolean isLaserValid() {
+        return this.backSample.isValid() && this.frontSample.isValid();
+    }
+
+    /**
+     * Gets the latest sample of the back laser.
+     * @return the sample.
+     * @apiNote The returned object is reused and updated by the indexer.
+     */
+    public LaserSample getBackLaser() {
+        return this.backSample;
+    }
+
+    /**
+     * Gets the latest sample of the front laser.
+     * @return the sample.
+     * @apiNote The returned object is reused and updated by the indexer.
+     */
+    public LaserSample getFrontLaser() {
+        return this.frontSample;
+    }
+
+    /**
+     * Checks if there is a note in the sterilizer.
+     * @return if the {@link NoteState} is not {@link NoteState#EMPTY}.
      */
     public boolean hasNote() {
-        Optional<Boolean>[] notes = getHasNotes();
-        return (notes[0].isPresent() && notes[0].get()) || (notes[1].isPresent() && notes[1].get());
+        return this.noteState != NoteState.EMPTY;
     }
     
     /**
@@ -111,6 +374,12 @@ public class SterilizerSubsystem extends SubsystemBase {
      */
     public void setSpeed(double speed) {
         feederMotor.set(speed);
+        if (this.simulated) {
+            NoteSimulation.getInstance().setSterilizerSpeed(speed);
+        }
+        else {
+            this.feederLoad.setSpeed(speed);
+        }
     }
 
     /**
@@ -121,16 +390,182 @@ public class SterilizerSubsystem extends SubsystemBase {
     }
 
     /**
-     * Limits the publishing of CAN messages to the bus.
+     * Applies the ranging configuration of both lasers through the {@link StartupOrchestrator}.
+     * @apiNote The simulated lasers are read from the {@link NoteSimulation} and are not configured.
+     */
+    private void configureLasers() {
+        if (this.simulated) return;
+
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.configure("Sterilizer back laser", createLaserSteps(this.backLaser));
+        orchestrator.configure("Sterilizer front laser", createLaserSteps(this.frontLaser));
+    }
+
+    /**
+     * Creates the configuration steps of a laser.
+     * @param laser to configure.
+     * @return the steps, in order.
+     */
+    private static StartupOrchestrator.Step[] createLaserSteps(LaserCan laser) {
+        return new StartupOrchestrator.Step[] {
+            StartupOrchestrator.laserCan(() -> laser.setRangingMode(SterilizerConstants.LASER_RANGING_MODE)),
+            StartupOrchestrator.laserCan(() -> laser.setTimingBudget(SterilizerConstants.LASER_TIMING_BUDGET)),
+            StartupOrchestrator.laserCan(() -> laser.setRegionOfInterest(new LaserCan.RegionOfInterest(
+                SterilizerConstants.LASER_ROI_X, SterilizerConstants.LASER_ROI_Y,
+                SterilizerConstants.LASER_ROI_WIDTH, SterilizerConstants.LASER_ROI_HEIGHT)))
+        };
+    }
+
+    /**
+     * Declares the CAN messages this subsystem needs to the {@link StatusFrameAllocator}.
      */
     private void setStatusFrames() {
-        // feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, PrimeNumbers.getNextPrimeNumber());
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
+        // Velocity and current for the note detection.
+        StatusFrameAllocator.getInstance().spark("Sterilizer feeder", feederMotor)
+            .need(PeriodicFrame.kStatus0, 10, 100)
+            .need(PeriodicFrame.kStatus1, 20, 40)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 200);
+    }
+
+    /**
+     * Adds the devices of this subsystem to the {@link DeviceHealthMonitor}.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor monitor = DeviceHealthMonitor.getInstance();
+        monitor.spark("Sterilizer feeder", feederMotor);
+        monitor.laserCan("Sterilizer back laser", backLaser);
+        monitor.laserCan("Sterilizer front laser", frontLaser);
+    }
+
+    /**
+     * A sample of one of the lasers, updated in place by the indexer.
+     */
+    public static final class LaserSample {
+        private int distance = -1;
+        private int status = -1;
+        private boolean valid = false;
+        private boolean hasNote = false;
+
+        private LaserSample() {}
+
+        /**
+         * Updates the sample with a new measurement.
+         * @param measurement from the LaserCan, null if there is none.
+         */
+        private void update(LaserCan.Measurement measurement) {
+            if (measurement == null) {
+                update(-1, -1);
+                return;
+            }
+            update(measurement.status, measurement.distance_mm);
+        }
+
+        /**
+         * Updates the sample with a new status and distance.
+         * @param status of the measurement, -1 if there is none.
+         * @param distance in mm.
+         */
+        private void update(int status, int distance) {
+            this.status = status;
+            this.valid = status == LaserCan.LASERCAN_STATUS_VALID_MEASUREMENT;
+            this.distance = this.valid ? distance : -1;
+            this.hasNote = this.valid && this.distance <= SterilizerConstants.NOTE_DISTANCE_LASER;
+        }
+
+        /**
+         * Gets the measured distance.
+         * @return distance in mm, -1 when the measurement is invalid.
+         */
+        public int getDistance() {
+            return this.distance;
+        }
+
+        /**
+         * Gets the status of the measurement.
+         * @return the LaserCan status, -1 when there was no measurement.
+         */
+        public int getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Checks if the measurement is valid.
+         * @return whether it is valid.
+         */
+        public boolean isValid() {
+            return this.valid;
+        }
+
+        /**
+         * Checks the distance against the distance for a note.
+         * @return whether a note is in front of the laser.
+         * @apiNote {@code false} when the measurement is invalid.
+         */
+        public boolean hasNote() {
+            return this.hasNote;
+        }
+    }
+
+    /**
+     * The debounced note presence of one laser.
+     * <p>Invalid measurements hold the last presence. An edge is accepted once the laser agrees for
+     * {@link SterilizerConstants#LASER_DEBOUNCE_TIME} and is timestamped when the laser first changed.
+     * Rising edges can be accepted on the first measurement instead, where stopping late costs more than a glitch.</p>
+     */
+    private static final class LaserEdge {
+        private final LaserSample sample;
+        private final boolean immediateRise;
+        private boolean hasNote = false;
+        private boolean raw = false;
+        /** Timestamp the raw presence last changed in seconds. */
+        private double rawTimestamp = 0;
+        private double edgeTimestamp = 0;
+
+        /**
+         * Creates a new LaserEdge.
+         * @param sample of the laser, updated before each {@link LaserEdge#update(double)}.
+         * @param immediateRise accept rising edges without debouncing.
+         */
+        private LaserEdge(LaserSample sample, boolean immediateRise) {
+            this.sample = sample;
+            this.immediateRise = immediateRise;
+        }
+
+        /**
+         * Debounces the latest sample.
+         * @param timestamp of the sample in seconds.
+         * @return whether the presence changed.
+         */
+        private boolean update(double timestamp) {
+            boolean raw = this.sample.isValid() ? this.sample.hasNote() : this.hasNote;
+            if (raw != this.raw) {
+                this.raw = raw;
+                this.rawTimestamp = timestamp;
+            }
+            if (this.raw == this.hasNote) return false;
+            if (!(this.raw && this.immediateRise)
+                && timestamp - this.rawTimestamp < SterilizerConstants.LASER_DEBOUNCE_TIME) {
+                return false;
+            }
+            this.hasNote = this.raw;
+            this.edgeTimestamp = this.rawTimestamp;
+            return true;
+        }
+
+        /**
+         * Checks the debounced presence.
+         * @return whether a note is in front of the laser.
+         */
+        private boolean hasNote() {
+            return this.hasNote;
+        }
+
+        /**
+         * Gets when the laser first saw the last accepted edge.
+         * @return the FPGA timestamp in seconds.
+         */
+        private double getEdgeTimestamp() {
+            return this.edgeTimestamp;
+        }
     }
 }
@@ -0,0 +1,118 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.simulation;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.constants.Constants.IntakeStates;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.SimulationConstants;
+import frc.robot.utilities.Metrics;
+import frc.robot.utilities.Telemetry;
+
+/**
+ * A model of a note moving through the robot in simulation, used in place of the LaserCans.
+ * <ul>
+ * <li>A note is picked up once the intake has been spinning inwards on the floor for
+ * {@link SimulationConstants.Note#PICKUP_TIME}, as if the robot had driven onto one.</li>
+ * <li>The intake rollers move the note until it reaches the sterilizer, which then moves it to the shooting wheels.</li>
+ * <li>The note is gone once it leaves through the shooting wheels or back out of the intake.</li>
+ * </ul>
+ * @apiNote The intake and sterilizer set the inputs while simulated, and
+ * {@link NoteSimulation#update()} is called once per loop after the commands run.
+ */
+public class NoteSimulation {
+    // Thread-safe singleton design pattern.
+    private static volatile NoteSimulation instance;
+    private static Object mutex = new Object();
+
+    public static NoteSimulation getInstance() {
+        NoteSimulation result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new NoteSimulation();
+            }
+        }
+        return instance;
+    }
+
+    // Inputs.
+    private double intakeSpeed = 0;
+    private double intakeAngle = IntakeStates.IDLE.getAngle();
+    private double sterilizerSpeed = 0;
+
+    private boolean hasNote = false;
+    /** Position of the note's center in meters, see {@link SimulationConstants.Note}. */
+    private double position = 0;
+    /** Time in seconds the intake has been spinning on the floor without a note. */
+    private double pickupTime = 0;
+
+    private final Metrics.Counter notesShot = Metrics.counter("Simulation/NotesShot");
+
+    private NoteSimulation() {}
+
+    /**
+     * Sets the state of the intake.
+     * @param speed of the intaking motors between -1.0 and 1.0. Positive speeds move towards the sterilizer.
+     * @param angle of the intake pivot in degrees.
+     */
+    public void setIntake(double speed, double angle) {
+        this.intakeSpeed = speed;
+        this.intakeAngle = angle;
+    }
+
+    /**
+     * Sets the state of the sterilizer.
+     * @param speed of the feeder between -1.0 and 1.0. Positive speeds are towards the shooting wheels.
+     */
+    public void setSterilizerSpeed(double speed) {
+        this.sterilizerSpeed = speed;
+    }
+
+    /**
+     * Moves the note by one loop.
+     */
+    public void update() {
+        double dt = TimedRobot.kDefaultPeriod;
+
+        if (!this.hasNote) {
+            boolean onFloor = Math.abs(this.intakeAngle - IntakeStates.INTAKING.getAngle())
+                <= IntakeStates.INTAKING.getTolerance();
+            this.pickupTime = onFloor && this.intakeSpeed > 0 ? this.pickupTime + dt : 0;
+            if (this.pickupTime < SimulationConstants.Note.PICKUP_TIME) return;
+
+            this.hasNote = true;
+            this.position = 0;
+            this.pickupTime = 0;
+        }
+
+        // Whichever rollers hold the note's center move it.
+        this.position += dt * (this.position < SimulationConstants.Note.STERILIZER_POSITION
+            ? this.intakeSpeed * SimulationConstants.Note.INTAKE_SURFACE_SPEED
+            : this.sterilizerSpeed * SimulationConstants.Note.STERILIZER_SURFACE_SPEED);
+
+        if (this.position >= SimulationConstants.Note.SHOOTER_POSITION) {
+            this.hasNote = false;
+            this.notesShot.increment();
+            Telemetry.logMessage("Simulated note shot", LoggingTags.INFO);
+        }
+        else if (this.position < 0) {
+            this.hasNote = false;
+            Telemetry.logMessage("Simulated note ejected from the intake", LoggingTags.INFO);
+        }
+    }
+
+    /**
+     * Gets the distance a laser would measure.
+     * @param laserPosition along the path of the note in meters.
+     * @return the distance in millimeters.
+     */
+    public int getLaserDistance(double laserPosition) {
+        return this.hasNote && Math.abs(this.position - laserPosition) <= SimulationConstants.Note.LENGTH / 2
+            ? SimulationConstants.Note.NOTE_DISTANCE
+            : SimulationConstants.Note.EMPTY_DISTANCE;
+    }
+}
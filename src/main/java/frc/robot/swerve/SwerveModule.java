@@ -11,9 +11,12 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
 import frc.robot.constants.PhysicalConstants.RobotConstants;
 import frc.robot.constants.PhysicalConstants.SwerveKinematics;
-import frc.robot.constants.PrimeNumbers;
 
 /**
  * A class to represent each swerve module and its components.
@@ -47,12 +50,15 @@ public class SwerveModule {
 
         // Initializes the driving and turning motor.
         this.driveMotor = new CANSparkMax(driveMotorID, MotorType.kBrushless);
-        this.driveMotor.setIdleMode(IdleMode.kBrake);
-        this.driveMotor.setInverted(driveMotorReversed);
-
         this.turningMotor = new CANSparkMax(turningMotorID, MotorType.kBrushless);
-        this.turningMotor.setIdleMode(IdleMode.kBrake);
-        this.turningMotor.setInverted(turningMotorReversed);
+
+        StartupOrchestrator orchestrator = StartupOrchestrator.getInstance();
+        orchestrator.configure("Swerve drive " + driveMotorID,
+            StartupOrchestrator.rev(() -> this.driveMotor.setIdleMode(IdleMode.kBrake)),
+            StartupOrchestrator.rev(this.driveMotor, () -> this.driveMotor.setInverted(driveMotorReversed)));
+        orchestrator.configure("Swerve turning " + turningMotorID,
+            StartupOrchestrator.rev(() -> this.turningMotor.setIdleMode(IdleMode.kBrake)),
+            StartupOrchestrator.rev(this.turningMotor, () -> this.turningMotor.setInverted(turningMotorReversed)));
 
         // Initializes the turning encoder on the specific CAN bus.
         this.turningEncoder = new CANcoder(turningEncoderID, RobotConstants.SWERVE_CAN_BUS);
@@ -69,6 +75,7 @@ public class SwerveModule {
         this.turningPidController.enableContinuousInput(-Math.PI, Math.PI);
 
         setStatusFrames();
+        registerHealthChecks();
     }
 
     /**
@@ -148,26 +155,37 @@ public class SwerveModule {
     }
 
     /**
-     * Limits the publishing of CAN messages to the bus.
+     * Declares the CAN messages this module needs to the {@link StatusFrameAllocator}.
      */
     private void setStatusFrames() {
-        // driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        // driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 20);
-        driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 50);
-        driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 20);
-        driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // driveMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-        
-        // turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, PrimeNumbers.getNextPrimeNumber());
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, PrimeNumbers.getNextPrimeNumber());
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus3, PrimeNumbers.getNextPrimeNumber());
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus4, PrimeNumbers.getNextPrimeNumber());
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, PrimeNumbers.getNextPrimeNumber());
-        turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, PrimeNumbers.getNextPrimeNumber());
-        // turningMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus7, 250);
-        
+        StatusFrameAllocator allocator = StatusFrameAllocator.getInstance();
+
+        // Odometry still runs while disabled in case the robot is moved by hand.
+        allocator.spark("Swerve drive " + driveMotor.getDeviceId(), driveMotor)
+            .need(PeriodicFrame.kStatus0, 10, 100)
+            .need(PeriodicFrame.kStatus1, 20)
+            .need(PeriodicFrame.kStatus2, 50)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus1, 200)
+            .need(RobotMode.DISABLED, PeriodicFrame.kStatus2, 100);
+
+        // The turning position and velocity come from the CANcoder.
+        allocator.spark("Swerve turning " + turningMotor.getDeviceId(), turningMotor)
+            .need(PeriodicFrame.kStatus0, 10, 100);
+        allocator.phoenix("Swerve CANcoder " + turningEncoder.getDeviceID(), turningEncoder)
+            .need(turningEncoder.getAbsolutePosition(), 10, 20)
+            .need(turningEncoder.getVelocity(), 20, 50)
+            .need(RobotMode.DISABLED, turningEncoder.getAbsolutePosition(), 50)
+            .need(RobotMode.DISABLED, turningEncoder.getVelocity(), 250);
+    }
+
+    /**
+     * Adds the devices of this module to the {@link DeviceHealthMonitor}.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor monitor = DeviceHealthMonitor.getInstance();
+        monitor.spark("Swerve drive " + driveMotor.getDeviceId(), driveMotor);
+        monitor.spark("Swerve turning " + turningMotor.getDeviceId(), turningMotor);
+        monitor.phoenix("Swerve CANcoder " + turningEncoder.getDeviceID(), turningEncoder,
+            turningEncoder.getVersion(), turningEncoder.getStickyFaultField(), null);
     }
 }
@@ -1,5 +1,7 @@
 package frc.robot.swerve;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.ctre.phoenix6.configs.MountPoseConfigs;
 import com.ctre.phoenix6.hardware.Pigeon2;
 import com.pathplanner.lib.auto.AutoBuilder;
@@ -20,13 +22,19 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.can.DeviceHealthMonitor;
+import frc.robot.can.StartupOrchestrator;
+import frc.robot.can.StatusFrameAllocator;
+import frc.robot.can.StatusFrameAllocator.RobotMode;
 import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+import frc.robot.constants.PhysicalConstants.CANConstants;
 import frc.robot.constants.PhysicalConstants.LimelightConstants;
 import frc.robot.constants.PhysicalConstants.RobotConstants;
 import frc.robot.constants.PhysicalConstants.SwerveKinematics;
 import frc.robot.constants.PhysicalConstants.SwerveModuleConfigs;
 import frc.robot.limelight.LimelightHelpers;
 import frc.robot.limelight.LimelightSubsystem;
+import frc.robot.utilities.Metrics;
 import frc.robot.utilities.SwerveUtilities;
 import frc.robot.utilities.Telemetry;
 
@@ -97,6 +105,12 @@ public class SwerveSubsystem extends SubsystemBase {
     private SwerveModuleState[] desiredStates = new SwerveModuleState[4];
     /** Save whether or not currently using LL data for odometry */
     private boolean usingLimelightOdometry = false;
+
+    private Metrics.Counter visionAccepted = Metrics.counter("Vision/Accepted");
+    private Metrics.Counter visionRejected = Metrics.counter("Vision/Rejected");
+    private Metrics.Gauge visionAcceptRate = Metrics.gauge("Vision/AcceptRate");
+    /** Completed once the gyro is configured with the starting heading, null after it has been handled. */
+    private CompletableFuture<Boolean> gyroConfigured;
     
     /**
      * Creates a new SwerveSubsystem.
@@ -127,19 +141,17 @@ public class SwerveSubsystem extends SubsystemBase {
             this
         );
 
-        gyro.getConfigurator().apply(new MountPoseConfigs().withMountPoseYaw(0));
-        
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000);
-                setHeading(SwerveUtilities.getStartingPose(Telemetry.getInstance().getSelectedStartingPosition())
-                    .getRotation().getDegrees()
-                );
-            }
-            catch (Exception error) {
-                error.printStackTrace();
-            }
-        });
+        // The heading is set on the gyro from a worker thread, and the odometry catches up in periodic().
+        this.gyroConfigured = StartupOrchestrator.getInstance().configure("Pigeon2",
+            StartupOrchestrator.phoenix(() -> gyro.getConfigurator().apply(new MountPoseConfigs().withMountPoseYaw(0))),
+            StartupOrchestrator.phoenix(() -> gyro.setYaw(
+                SwerveUtilities.getStartingPose(Telemetry.getInstance().getSelectedStartingPosition())
+                    .getRotation().getDegrees())),
+            // A copy of the yaw signal, the main loop reads the original.
+            StartupOrchestrator.phoenix(
+                () -> gyro.getYaw().clone().waitForUpdate(CANConstants.CONFIGURATION_TIMEOUT).getStatus()));
+        setStatusFrames();
+        registerHealthChecks();
     }
     
     /**
@@ -147,6 +159,14 @@ public class SwerveSubsystem extends SubsystemBase {
      */
     @Override
     public void periodic() {
+        if (this.gyroConfigured != null && this.gyroConfigured.isDone()) {
+            // Keep the translation and take the starting heading that was set on the gyro.
+            if (this.gyroConfigured.getNow(false)) {
+                setPose(new Pose2d(getPose().getTranslation(), getRotation2d()));
+            }
+            this.gyroConfigured = null;
+        }
+
         this.odometer.update(getRotation2d(), getModulePositions());
         
         this.usingLimelightOdometry = updateOdometryUsingVision();
@@ -299,6 +319,8 @@ public class SwerveSubsystem extends SubsystemBase {
             }
             // Not trustworthy enough.
             else {
+                this.visionRejected.increment();
+                updateVisionAcceptRate();
                 return false;
             }
 
@@ -315,11 +337,21 @@ public class SwerveSubsystem extends SubsystemBase {
                 Timer.getFPGATimestamp() - rawLimelightData[6] / 1000.0
             );
 
+            this.visionAccepted.increment();
+            updateVisionAcceptRate();
             return true;
         }
         return false;
     }
 
+    /**
+     * Updates the ratio of accepted vision measurements to measurements with targets.
+     */
+    private void updateVisionAcceptRate() {
+        long accepted = this.visionAccepted.get();
+        this.visionAcceptRate.set((double) accepted / (accepted + this.visionRejected.get()));
+    }
+
     /**
      * Stops all the swerve modules.
      */
@@ -371,4 +403,24 @@ public class SwerveSubsystem extends SubsystemBase {
     public SwerveModuleState[] getDesiredStates() {
         return this.desiredStates;
     }
+
+    /**
+     * Declares the CAN messages this subsystem needs to the {@link StatusFrameAllocator}.
+     * @apiNote The modules declare their own.
+     */
+    private void setStatusFrames() {
+        // Only the yaw is used, for odometry and field-relative driving.
+        StatusFrameAllocator.getInstance().phoenix("Pigeon2", gyro)
+            .need(gyro.getYaw(), 10, 20)
+            .need(RobotMode.DISABLED, gyro.getYaw(), 50);
+    }
+
+    /**
+     * Adds the gyro to the {@link DeviceHealthMonitor}.
+     * @apiNote The modules add their own devices.
+     */
+    private void registerHealthChecks() {
+        DeviceHealthMonitor.getInstance().phoenix("Pigeon2", gyro,
+            gyro.getVersion(), gyro.getStickyFaultField(), gyro.getTemperature());
+    }
 }
@@ -0,0 +1,147 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
+
+/**
+ * A class that times each phase of the robot's startup and runs non-critical initialization
+ * after the robot is drivable.
+ * <ul>
+ * <li>{@link BootProfiler#phase(String, Runnable)} times a phase that is needed to drive.</li>
+ * <li>{@link BootProfiler#defer(String, Runnable)} queues a phase that runs one per loop once
+ * {@link BootProfiler#markDrivable()} has been called.</li>
+ * </ul>
+ * The timeline is printed and written to the DataLog once every deferred phase has run.
+ */
+public class BootProfiler {
+    // Thread-safe singleton design pattern.
+    private static volatile BootProfiler instance;
+    private static Object mutex = new Object();
+
+    public static BootProfiler getInstance() {
+        BootProfiler result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new BootProfiler();
+            }
+        }
+        return instance;
+    }
+
+    /** The FPGA timestamp starts when the roboRIO boots, so this is the time spent before the code ran. */
+    private final double startTime = Timer.getFPGATimestamp();
+    private double drivableTime = -1;
+
+    private final List<String> timeline = new ArrayList<String>();
+    private final Queue<DeferredPhase> deferred = new ArrayDeque<DeferredPhase>();
+    private boolean reported = false;
+
+    private final StringLogEntry logEntry = new StringLogEntry(DataLogManager.getLog(), "/Boot/Timeline");
+
+    private BootProfiler() {
+        record("roboRIO boot", this.startTime);
+    }
+
+    /**
+     * Runs and times a phase of the startup.
+     * @param name of the phase.
+     * @param phase to run.
+     */
+    public synchronized void phase(String name, Runnable phase) {
+        double start = Timer.getFPGATimestamp();
+        phase.run();
+        record(name, Timer.getFPGATimestamp() - start);
+    }
+
+    /**
+     * Queues a phase to run after the robot is drivable.
+     * @param name of the phase.
+     * @param phase to run on the main thread.
+     */
+    public synchronized void defer(String name, Runnable phase) {
+        this.deferred.add(new DeferredPhase(name, phase));
+    }
+
+    /**
+     * Marks the robot as drivable, deferred phases start running in the next loops.
+     */
+    public synchronized void markDrivable() {
+        if (this.drivableTime >= 0) return;
+        this.drivableTime = Timer.getFPGATimestamp();
+        record("Drivable after", this.drivableTime - this.startTime);
+    }
+
+    /**
+     * Runs every deferred phase that has not run yet.
+     * @apiNote Use this when something needs a deferred phase before its turn, like the auto chooser in autonomous.
+     */
+    public synchronized void runDeferred() {
+        while (!this.deferred.isEmpty()) {
+            runNextDeferred();
+        }
+    }
+
+    /**
+     * Runs the next deferred phase and reports the timeline once they have all run.
+     * @apiNote This should be called every loop.
+     */
+    public synchronized void update() {
+        if (this.reported || this.drivableTime < 0) return;
+
+        if (!this.deferred.isEmpty()) {
+            // One phase per loop so that a single loop does not overrun by the whole backlog.
+            runNextDeferred();
+            return;
+        }
+
+        this.reported = true;
+        record("Fully initialized after", Timer.getFPGATimestamp() - this.startTime);
+        Telemetry.logMessage("Boot timeline: " + String.join(", ", this.timeline), LoggingTags.INFO);
+    }
+
+    /**
+     * Runs and times the next deferred phase.
+     */
+    private void runNextDeferred() {
+        DeferredPhase next = this.deferred.poll();
+        phase(next.name + " (deferred)", next.phase);
+    }
+
+    /**
+     * Adds a phase to the timeline.
+     * @param name of the phase.
+     * @param duration in seconds.
+     */
+    private void record(String name, double duration) {
+        String entry = name + " " + Telemetry.D_FORMAT.format(duration) + " sec";
+        this.timeline.add(entry);
+        this.logEntry.append(entry);
+        Metrics.gauge("Boot/" + name).set(duration);
+    }
+
+    /**
+     * A phase waiting to run after the robot is drivable.
+     */
+    private static class DeferredPhase {
+        private final String name;
+        private final Runnable phase;
+
+        private DeferredPhase(String name, Runnable phase) {
+            this.name = name;
+            this.phase = phase;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utilities;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+
+/**
+ * A class that records when commands start and end using the {@link CommandScheduler} hooks.
+ * Each event is written to a timeline in the DataLog and durations are recorded
+ * in a {@link Metrics.Histogram} per command name.
+ * @apiNote Commands inside of compositions (sequences, PathPlanner autos) are not seen by the scheduler,
+ * wrap them with {@link CommandTracer#traced(Command, String)} to trace them individually.
+ */
+public class CommandTracer {
+    // Thread-safe singleton design pattern.
+    private static volatile CommandTracer instance;
+    private static Object mutex = new Object();
+
+    public static CommandTracer getInstance() {
+        CommandTracer result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new CommandTracer();
+            }
+        }
+        return instance;
+    }
+
+    /** Start timestamps in seconds of the commands currently running. */
+    private final Map<Command, Double> startTimes = new IdentityHashMap<Command, Double>();
+    private final Map<String, Metrics.Histogram> durations = new HashMap<String, Metrics.Histogram>();
+    private final StringLogEntry timeline = new StringLogEntry(DataLogManager.getLog(), "/Commands/Timeline");
+
+    /**
+     * Creates a new CommandTracer and registers the {@link CommandScheduler} hooks.
+     */
+    private CommandTracer() {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize((Command command) -> commandStarted(command, command.getName()));
+        scheduler.onCommandFinish((Command command) -> commandEnded(command, command.getName(), false, Optional.empty()));
+        scheduler.onCommandInterrupt((Command command, Optional<Command> interruptor) ->
+            commandEnded(command, command.getName(), true, interruptor));
+    }
+
+    /**
+     * Wraps a command so that it is traced even when it is part of a composition.
+     * @param command to trace.
+     * @param name used in the timeline and for the histogram.
+     * @return the wrapped command.
+     */
+    public static Command traced(Command command, String name) {
+        return new TracedCommand(command, name);
+    }
+
+    /**
+     * Records the start of a command.
+     * @param command that started.
+     * @param name of the command.
+     */
+    private void commandStarted(Command command, String name) {
+        this.startTimes.put(command, Timer.getFPGATimestamp());
+        this.timeline.append(modeTag() + "START " + name);
+    }
+
+    /**
+     * Records the end of a command.
+     * @param command that ended.
+     * @param name of the command.
+     * @param interrupted whether the command was interrupted.
+     * @param interruptor the command that caused the interruption, if any.
+     */
+    private void commandEnded(Command command, String name, boolean interrupted, Optional<Command> interruptor) {
+        Double startTime = this.startTimes.remove(command);
+        double duration = startTime == null ? 0 : Timer.getFPGATimestamp() - startTime;
+
+        Metrics.Histogram histogram = this.durations.get(name);
+        if (histogram == null) {
+            histogram = Metrics.histogram("Commands/" + name);
+            this.durations.put(name, histogram);
+        }
+        histogram.record(duration);
+
+        String event = modeTag() + (interrupted ? "INTERRUPT " : "END ") + name
+            + " " + Telemetry.D_FORMAT.format(duration) + " sec";
+        if (interruptor.isPresent()) {
+            event += " by " + interruptor.get().getName();
+        }
+        this.timeline.append(event);
+    }
+
+    /**
+     * Gets a tag for the current robot mode.
+     * @return the tag.
+     */
+    private static String modeTag() {
+        if (DriverStation.isDisabled()) return "[DISABLED] ";
+        if (DriverStation.isAutonomous()) return "[AUTO] ";
+        if (DriverStation.isTest()) return "[TEST] ";
+        return "[TELEOP] ";
+    }
+
+    /**
+     * A command that reports its own lifecycle to the {@link CommandTracer}.
+     */
+    private static class TracedCommand extends WrapperCommand {
+        private final String traceName;
+
+        private TracedCommand(Command command, String traceName) {
+            super(command);
+            this.traceName = traceName;
+        }
+
+        @Override
+        public void initialize() {
+            CommandTracer.getInstance().commandStarted(this, this.traceName);
+            super.initialize();
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            super.end(interrupted);
+            CommandTracer.getInstance().commandEnded(this, this.traceName, interrupted, Optional.empty());
+        }
+    }
+}
@@ -0,0 +1,424 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.PhysicalConstants.RobotConstants;
+
+/**
+ * A registry of counters, gauges and histograms that are exported to NetworkTables and the DataLog.
+ * @apiNote Look metrics up once (e.g. in a constructor) and keep the reference,
+ * updating a metric does not allocate.
+ */
+public class Metrics {
+    // Thread-safe singleton design pattern.
+    private static volatile Metrics instance;
+    private static Object mutex = new Object();
+
+    public static Metrics getInstance() {
+        Metrics result = instance;
+        if (result == null) {
+            synchronized (mutex) {
+                result = instance;
+                if (result == null)
+                    instance = result = new Metrics();
+            }
+        }
+        return instance;
+    }
+
+    /** Name of the NetworkTable and DataLog prefix metrics are published under. */
+    private static final String TABLE_NAME = "Metrics";
+
+    private final Map<String, Metric> metrics = new HashMap<String, Metric>();
+    private final List<Metric> metricList = new ArrayList<Metric>();
+
+    private final NetworkTable table;
+    private final DataLog log;
+
+    /** Time in seconds between each export. */
+    private double publishPeriod = RobotConstants.METRICS_LOOP_TIME;
+    private double lastPublish = 0;
+
+    /**
+     * Creates a new Metrics registry and starts the DataLog.
+     */
+    private Metrics() {
+        DataLogManager.start();
+        this.log = DataLogManager.getLog();
+        this.table = NetworkTableInstance.getDefault().getTable(TABLE_NAME);
+    }
+
+    /**
+     * Gets or creates a counter.
+     * @param name of the counter, use {@code "/"} to group metrics.
+     * @return the counter.
+     */
+    public static Counter counter(String name) {
+        return getInstance().register(name, Counter.class);
+    }
+
+    /**
+     * Gets or creates a gauge.
+     * @param name of the gauge, use {@code "/"} to group metrics.
+     * @return the gauge.
+     */
+    public static Gauge gauge(String name) {
+        return getInstance().register(name, Gauge.class);
+    }
+
+    /**
+     * Gets or creates a histogram that tracks values between 1 ms and 60 s.
+     * @param name of the histogram, use {@code "/"} to group metrics.
+     * @return the histogram.
+     */
+    public static Histogram histogram(String name) {
+        return getInstance().register(name, Histogram.class);
+    }
+
+    /**
+     * Gets or creates a metric of the given type.
+     * @param name of the metric.
+     * @param type of the metric.
+     * @return the metric.
+     * @throws IllegalArgumentException when the name is already used by a different type of metric.
+     */
+    private synchronized <T extends Metric> T register(String name, Class<T> type) {
+        Metric metric = this.metrics.get(name);
+
+        if (metric == null) {
+            if (type == Counter.class) {
+                metric = new Counter(name, this.table, this.log);
+            }
+            else if (type == Gauge.class) {
+                metric = new Gauge(name, this.table, this.log);
+            }
+            else {
+                metric = new Histogram(name, this.table, this.log);
+            }
+            this.metrics.put(name, metric);
+            this.metricList.add(metric);
+        }
+        else if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + metric.getClass().getSimpleName());
+        }
+
+        return type.cast(metric);
+    }
+
+    /**
+     * Sets how often metrics are exported.
+     * @param period in seconds.
+     */
+    public void setPublishPeriod(double period) {
+        this.publishPeriod = period;
+    }
+
+    /**
+     * Exports every metric if {@link Metrics#setPublishPeriod(double)} has elapsed since the last export.
+     * @apiNote This should be called every loop.
+     */
+    public synchronized void update() {
+        double timestamp = Timer.getFPGATimestamp();
+        if (timestamp - this.lastPublish < this.publishPeriod) return;
+        this.lastPublish = timestamp;
+
+        for (int i = 0; i < this.metricList.size(); i++) {
+            this.metricList.get(i).publish();
+        }
+    }
+
+    /**
+     * A metric that can be exported.
+     */
+    private static abstract class Metric {
+        protected final String name;
+
+        private Metric(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Exports the metric to NetworkTables and the DataLog.
+         */
+        protected abstract void publish();
+    }
+
+    /**
+     * A metric that counts events.
+     */
+    public static final class Counter extends Metric {
+        private long count = 0;
+        private long publishedCount = -1;
+
+        private final IntegerPublisher publisher;
+        private final IntegerLogEntry logEntry;
+
+        private Counter(String name, NetworkTable table, DataLog log) {
+            super(name);
+            this.publisher = table.getIntegerTopic(name).publish();
+            this.logEntry = new IntegerLogEntry(log, "/" + TABLE_NAME + "/" + name);
+        }
+
+        /**
+         * Adds one to the counter.
+         */
+        public void increment() {
+            this.count++;
+        }
+
+        /**
+         * Adds to the counter.
+         * @param amount to add.
+         */
+        public void add(long amount) {
+            this.count += amount;
+        }
+
+        /**
+         * Gets the current count.
+         * @return the count.
+         */
+        public long get() {
+            return this.count;
+        }
+
+        @Override
+        protected void publish() {
+            if (this.count == this.publishedCount) return;
+            this.publishedCount = this.count;
+
+            this.publisher.set(this.count);
+            this.logEntry.append(this.count);
+        }
+    }
+
+    /**
+     * A metric that holds the latest value of a measurement.
+     */
+    public static final class Gauge extends Metric {
+        private double value = 0;
+        private double publishedValue = Double.NaN;
+
+        private final DoublePublisher publisher;
+        private final DoubleLogEntry logEntry;
+
+        private Gauge(String name, NetworkTable table, DataLog log) {
+            super(name);
+            this.publisher = table.getDoubleTopic(name).publish();
+            this.logEntry = new DoubleLogEntry(log, "/" + TABLE_NAME + "/" + name);
+        }
+
+        /**
+         * Sets the value of the gauge.
+         * @param value to set.
+         */
+        public void set(double value) {
+            this.value = value;
+        }
+
+        /**
+         * Gets the current value.
+         * @return the value.
+         */
+        public double get() {
+            return this.value;
+        }
+
+        @Override
+        protected void publish() {
+            if (Double.compare(this.value, this.publishedValue) == 0) return;
+            this.publishedValue = this.value;
+
+            this.publisher.set(this.value);
+            this.logEntry.append(this.value);
+        }
+    }
+
+    /**
+     * A metric that records the distribution of values (in seconds) using logarithmic buckets
+     * with linear sub-buckets (similar to an HDR histogram).
+     * @apiNote Values are tracked between 1 ms and 60 s with less than 2% error.
+     */
+    public static final class Histogram extends Metric {
+        /** Smallest value that can be told apart from zero, in seconds. */
+        private static final double RESOLUTION = 0.001;
+        /** Largest value that can be tracked, in seconds. Larger values are counted in the last bucket. */
+        private static final double HIGHEST_TRACKABLE = 60;
+        /** Number of bits used for linear sub-buckets. More bits means more precision. */
+        private static final int SUB_BUCKET_BITS = 7;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+        private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+        private final long[] buckets = new long[bucketIndex((long) (HIGHEST_TRACKABLE / RESOLUTION)) + 1];
+        private long count = 0;
+        private long publishedCount = 0;
+        private double sum = 0;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private final IntegerPublisher countPublisher;
+        private final DoublePublisher meanPublisher;
+        private final DoublePublisher p50Publisher;
+        private final DoublePublisher p90Publisher;
+        private final DoublePublisher p99Publisher;
+        private final DoublePublisher maxPublisher;
+
+        private final IntegerLogEntry countLogEntry;
+        private final DoubleLogEntry meanLogEntry;
+        private final DoubleLogEntry p50LogEntry;
+        private final DoubleLogEntry p90LogEntry;
+        private final DoubleLogEntry p99LogEntry;
+        private final DoubleLogEntry maxLogEntry;
+
+        private Histogram(String name, NetworkTable table, DataLog log) {
+            super(name);
+
+            this.countPublisher = table.getIntegerTopic(name + "/count").publish();
+            this.meanPublisher = table.getDoubleTopic(name + "/mean").publish();
+            this.p50Publisher = table.getDoubleTopic(name + "/p50").publish();
+            this.p90Publisher = table.getDoubleTopic(name + "/p90").publish();
+            this.p99Publisher = table.getDoubleTopic(name + "/p99").publish();
+            this.maxPublisher = table.getDoubleTopic(name + "/max").publish();
+
+            String prefix = "/" + TABLE_NAME + "/" + name;
+            this.countLogEntry = new IntegerLogEntry(log, prefix + "/count");
+            this.meanLogEntry = new DoubleLogEntry(log, prefix + "/mean");
+            this.p50LogEntry = new DoubleLogEntry(log, prefix + "/p50");
+            this.p90LogEntry = new DoubleLogEntry(log, prefix + "/p90");
+            this.p99LogEntry = new DoubleLogEntry(log, prefix + "/p99");
+            this.maxLogEntry = new DoubleLogEntry(log, prefix + "/max");
+        }
+
+        /**
+         * Records a value.
+         * @param value in seconds. Negative values are recorded as 0.
+         */
+        public void record(double value) {
+            value = Math.max(0, value);
+            long units = Math.min((long) (value / RESOLUTION), (long) (HIGHEST_TRACKABLE / RESOLUTION));
+
+            this.buckets[bucketIndex(units)]++;
+            this.count++;
+            this.sum += value;
+            this.min = Math.min(this.min, value);
+            this.max = Math.max(this.max, value);
+        }
+
+        /**
+         * Gets the amount of recorded values.
+         * @return the count.
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Gets the average of the recorded values.
+         * @return the mean in seconds, or 0 if nothing was recorded.
+         */
+        public double getMean() {
+            return this.count == 0 ? 0 : this.sum / this.count;
+        }
+
+        /**
+         * Gets the value below which a percentage of the recorded values fall.
+         * @param percentile between 0.0 and 1.0.
+         * @return the value in seconds, or 0 if nothing was recorded.
+         */
+        public double getPercentile(double percentile) {
+            if (this.count == 0) return 0;
+
+            long target = Math.max(1, (long) Math.ceil(percentile * this.count));
+            long cumulative = 0;
+            for (int i = 0; i < this.buckets.length; i++) {
+                cumulative += this.buckets[i];
+                if (cumulative >= target) {
+                    // Middle of the bucket, clamped by what was actually recorded.
+                    double value = (bucketLowerBound(i) + bucketWidth(i) / 2.0) * RESOLUTION;
+                    return Math.max(this.min, Math.min(this.max, value));
+                }
+            }
+            return this.max;
+        }
+
+        @Override
+        protected void publish() {
+            if (this.count == this.publishedCount) return;
+            this.publishedCount = this.count;
+
+            double mean = getMean();
+            double p50 = getPercentile(0.5);
+            double p90 = getPercentile(0.9);
+            double p99 = getPercentile(0.99);
+
+            this.countPublisher.set(this.count);
+            this.meanPublisher.set(mean);
+            this.p50Publisher.set(p50);
+            this.p90Publisher.set(p90);
+            this.p99Publisher.set(p99);
+            this.maxPublisher.set(this.max);
+
+            this.countLogEntry.append(this.count);
+            this.meanLogEntry.append(mean);
+            this.p50LogEntry.append(p50);
+            this.p90LogEntry.append(p90);
+            this.p99LogEntry.append(p99);
+            this.maxLogEntry.append(this.max);
+        }
+
+        /**
+         * Gets the bucket a value falls into.
+         * Values below {@code SUB_BUCKET_COUNT} get their own bucket,
+         * larger values share a bucket with others of the same magnitude.
+         * @param units the value divided by {@code RESOLUTION}.
+         * @return the index of the bucket.
+         */
+        private static int bucketIndex(long units) {
+            if (units < SUB_BUCKET_COUNT) return (int) units;
+
+            int shift = (63 - Long.numberOfLeadingZeros(units)) - SUB_BUCKET_BITS + 1;
+            int subBucket = (int) (units >>> shift);
+            return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+        }
+
+        /**
+         * Gets the smallest value that falls into a bucket.
+         * @param index of the bucket.
+         * @return the value in units of {@code RESOLUTION}.
+         */
+        private static long bucketLowerBound(int index) {
+            if (index < SUB_BUCKET_COUNT) return index;
+
+            int offset = index - SUB_BUCKET_COUNT;
+            int shift = offset / SUB_BUCKET_HALF + 1;
+            long subBucket = offset % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+            return subBucket << shift;
+        }
+
+        /**
+         * Gets the range of values that fall into a bucket.
+         * @param index of the bucket.
+         * @return the width in units of {@code RESOLUTION}.
+         */
+        private static long bucketWidth(int index) {
+            if (index < SUB_BUCKET_COUNT) return 1;
+            return 1L << ((index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1);
+        }
+    }
+}
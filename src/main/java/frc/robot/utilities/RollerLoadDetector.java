@@ -0,0 +1,120 @@
+// Copyright (c) FIRST and other WPILib contributors.
+// Open Source Software; you can modify and/or share it under the terms of
+// the WPILib BSD license file in the root directory of this project.
+
+package frc.robot.utilities;
+
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.constants.PhysicalConstants.NoteDetectionConstants;
+
+/**
+ * A class that detects a note gripped by rollers from the current and velocity of their motors.
+ * <ul>
+ * <li>After each speed change the inrush current is ignored for {@link NoteDetectionConstants#INRUSH_BLANKING_TIME}.</li>
+ * <li>The rollers are loaded once the filtered current is above an absolute threshold and the velocity dropped
+ * below the free running velocity, for {@link NoteDetectionConstants#LOAD_DEBOUNCE_TIME}.</li>
+ * <li>The free running velocity per unit of speed is only learned while the caller knows the rollers are empty,
+ * and kept across runs, so rollers that start loaded are still compared against an empty run.
+ * Until it is learned only the current is used.</li>
+ * </ul>
+ * @apiNote {@link RollerLoadDetector#update(double, double, boolean)} should be called at the period given to
+ * the constructor, which should match the rate of the status frame the measurements come from.
+ */
+public class RollerLoadDetector {
+    private final LinearFilter currentFilter;
+    private final Debouncer loadDebouncer = new Debouncer(
+        NoteDetectionConstants.LOAD_DEBOUNCE_TIME, Debouncer.DebounceType.kBoth);
+    private final double loadCurrent;
+    private final double velocityDrop;
+
+    private double speed = 0;
+    /** Timestamp of the last speed change in seconds. */
+    private double speedTimestamp = 0;
+    private double filteredCurrent = 0;
+    /** Free running velocity divided by the speed, NaN until an empty run was seen. */
+    private double freeVelocityPerSpeed = Double.NaN;
+    private boolean loaded = false;
+
+    private final Metrics.Gauge currentGauge;
+    private final Metrics.Counter loads;
+
+    /**
+     * Creates a new RollerLoadDetector.
+     * @param name used for the metrics.
+     * @param period between updates in seconds.
+     * @param loadCurrent filtered current in amps above which a note is gripped.
+     * @param velocityDrop fraction of the free running velocity lost with a gripped note.
+     */
+    public RollerLoadDetector(String name, double period, double loadCurrent, double velocityDrop) {
+        this.currentFilter = LinearFilter.singlePoleIIR(NoteDetectionConstants.CURRENT_FILTER_TIME_CONSTANT, period);
+        this.loadCurrent = loadCurrent;
+        this.velocityDrop = velocityDrop;
+
+        this.currentGauge = Metrics.gauge("NoteDetection/" + name + "/Current");
+        this.loads = Metrics.counter("NoteDetection/" + name + "/Loads");
+    }
+
+    /**
+     * Sets the speed the rollers were given, restarting the detection when it changes.
+     * @param speed between -1.0 and 1.0.
+     */
+    public void setSpeed(double speed) {
+        if (speed == this.speed) return;
+
+        this.speed = speed;
+        this.speedTimestamp = Timer.getFPGATimestamp();
+        this.loaded = false;
+    }
+
+    /**
+     * Updates the detector with new measurements.
+     * @param current output current of the motors in amps.
+     * @param velocity of the rollers, in any unit.
+     * @param empty whether the caller knows there is no note in the rollers, to learn the free running velocity.
+     * @return whether a note is gripped.
+     */
+    public boolean update(double current, double velocity, boolean empty) {
+        this.filteredCurrent = this.currentFilter.calculate(current);
+        this.currentGauge.set(this.filteredCurrent);
+        if (!isActive()) {
+            // Keeps the debouncer released through the inrush.
+            this.loaded = this.loadDebouncer.calculate(false);
+            return false;
+        }
+
+        double velocityPerSpeed = Math.abs(velocity / this.speed);
+        if (empty) {
+            // A note only slows the rollers down, so the fastest empty sample is the free running one.
+            this.freeVelocityPerSpeed = Double.isNaN(this.freeVelocityPerSpeed)
+                ? velocityPerSpeed : Math.max(this.freeVelocityPerSpeed, velocityPerSpeed);
+        }
+
+        boolean slowed = Double.isNaN(this.freeVelocityPerSpeed)
+            || velocityPerSpeed <= this.freeVelocityPerSpeed * (1 - this.velocityDrop);
+        boolean loaded = this.loadDebouncer.calculate(this.filteredCurrent >= this.loadCurrent && slowed);
+        if (loaded && !this.loaded) {
+            this.loads.increment();
+        }
+        this.loaded = loaded;
+        return loaded;
+    }
+
+    /**
+     * Checks if the rollers spin fast enough and long enough after a speed change to detect a note.
+     * @return whether {@link RollerLoadDetector#isLoaded()} can be trusted.
+     */
+    public boolean isActive() {
+        return Math.abs(this.speed) >= NoteDetectionConstants.MIN_SPEED
+            && Timer.getFPGATimestamp() - this.speedTimestamp >= NoteDetectionConstants.INRUSH_BLANKING_TIME;
+    }
+
+    /**
+     * Checks if a note is gripped by the rollers.
+     * @return whether the rollers are loaded, {@code false} when not active.
+     */
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+}
@@ -11,6 +11,7 @@ import frc.robot.intake.PivotIntakeCommand;
 import frc.robot.intake.SpinIntakeCommand;
 import frc.robot.shooter.PivotShooterMMCommand;
 import frc.robot.shooter.ShootCommand;
+import frc.robot.shooter.ShotSolver;
 
 /**
  * A class that stores command chains for use elsewhere.
@@ -100,10 +101,16 @@ public class SequencedCommands {
      * @return the command
      */
     public static Command getAutoSpeakerShootCommand() {
+        // Paths running alongside turn the robot towards the shot, and the pivot follows it until the note is shot.
         return Commands.sequence(
             new PivotShooterMMCommand(ShooterStates.SPEAKER_CALCULATE),
-            new ShootCommand(ShooterStates.SPEAKER_CALCULATE)
-        );
+            Commands.deadline(
+                new ShootCommand(ShooterStates.SPEAKER_CALCULATE),
+                new PivotShooterMMCommand(ShooterStates.SPEAKER_CALCULATE, true)
+            )
+        )
+            .beforeStarting(() -> ShotSolver.getInstance().setAiming(true))
+            .finallyDo(() -> ShotSolver.getInstance().setAiming(false));
     }
 
     /**
@@ -12,6 +12,8 @@ import edu.wpi.first.cscore.HttpCamera;
 import edu.wpi.first.cscore.HttpCamera.HttpCameraKind;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StructArrayPublisher;
@@ -30,6 +32,8 @@ import frc.robot.constants.Constants.TelemetryConstants.LoggingTags;
 import frc.robot.intake.IntakeSubsystem;
 import frc.robot.limelight.LimelightSubsystem;
 import frc.robot.shooter.ShooterSubsystem;
+import frc.robot.shooter.ShotSolution;
+import frc.robot.shooter.ShotSolver;
 import frc.robot.swerve.SwerveSubsystem;
 
 /**
@@ -134,6 +138,14 @@ public class Telemetry {
         initialized = true;
     }
 
+    /**
+     * Registers the camera streams.
+     * @apiNote This is not needed to drive, so it is deferred by the {@link BootProfiler}.
+     */
+    public void initializeCameras() {
+        ShuffleboardTelemetry.initializeCameras();
+    }
+
     /**
      * Publishes telemetry classes.
      */
@@ -160,6 +172,15 @@ public class Telemetry {
             swerveModuleStatesPublisher.set(SwerveSubsystem.getInstance().getModuleStates());
             odometryPosePublisher.set(SwerveSubsystem.getInstance().getPose());
             swerveDesiredStatesPublisher.set(SwerveSubsystem.getInstance().getDesiredStates());
+
+            // The same solution the shooter commands read this loop.
+            ShotSolution solution = ShotSolver.getInstance().getSolution();
+            shotValidPublisher.set(solution.isValid());
+            shotDistancePublisher.set(solution.getDistance());
+            shotAnglePublisher.set(solution.getAngle());
+            shotRPMPublisher.set(solution.getRPM());
+            shotHeadingPublisher.set(solution.getHeading());
+            shotTimeOfFlightPublisher.set(solution.getTimeOfFlight());
         }
 
         // Publishers.
@@ -177,6 +198,19 @@ public class Telemetry {
             .getTable("AdvantageScope")
             .getStructTopic("RobotPose", Pose2d.struct)
             .publish();
+
+        private static BooleanPublisher shotValidPublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getBooleanTopic("Valid").publish();
+        private static DoublePublisher shotDistancePublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getDoubleTopic("Distance").publish();
+        private static DoublePublisher shotAnglePublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getDoubleTopic("Angle").publish();
+        private static DoublePublisher shotRPMPublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getDoubleTopic("RPM").publish();
+        private static DoublePublisher shotHeadingPublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getDoubleTopic("Heading").publish();
+        private static DoublePublisher shotTimeOfFlightPublisher = NetworkTableInstance.getDefault()
+            .getTable("AdvantageScope/ShotSolution").getDoubleTopic("TimeOfFlight").publish();
     }
 
     /**
@@ -225,7 +259,12 @@ public class Telemetry {
                     SwerveSubsystem.getInstance().setPose(startingPose);
                 }).ignoringDisable(true).withName("Set Again"))
                 .withWidget(BuiltInWidgets.kCommand);
-            
+        }
+
+        /**
+         * Registers the Limelight camera streams.
+         */
+        public static void initializeCameras() {
             // LimelightSubsystem.
             HttpCamera limelightFrontFeed = new HttpCamera(
                 LimelightConstants.SHOOTER_LLIGHT,